@@ -1,17 +1,33 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import model.*;
+import model.ai.AIExecutor;
+import model.ai.AlphaBetaStrategy;
+import model.ai.AnalysisLine;
+import model.ai.AnalysisService;
+import model.ai.BoardState;
+import model.ai.SearchInfo;
+import model.ai.TurnPlan;
 import model.cards.*;
 import model.enums.GameState;
 import model.enums.TurnState;
 import model.enums.GameMode;
+import model.enums.Difficulty;
+import model.monitoring.BoardRebuildEvent;
 import model.Board;
 import model.Cell;
 import model.Worker;
 import model.players.ComputerPlayer;
 import model.players.Player;
+import model.turns.Turn;
 
 /**
  * The main GUI for the Santorini game.
@@ -24,13 +40,29 @@ public class GUI extends JFrame {
     private Worker selectedWorker;
     private Position selectedPosition;
     private boolean isMovePhase = true;
-    private final Random random = new Random();
     private final List<Position> validMovePositions;
     private final JButton skipButton;
     private final boolean useGodCards;
     private final JLabel timerLabel1;
     private final JLabel timerLabel2;
     private javax.swing.Timer uiTimer; // Swing timer for UI updates
+    private final AIExecutor aiExecutor = new AIExecutor(); // Runs AI searches off the event thread
+    private CompletableFuture<TurnPlan> pendingComputerTurn;
+    private CompletableFuture<List<Position>> pendingPlacement;
+    private final AnalysisService analysisService = new AnalysisService(); // Hints and the evaluation bar
+    private final JButton hintButton = new JButton("Hint");
+    private final JCheckBox evaluationToggle = new JCheckBox("Evaluation");
+    private final JProgressBar evaluationBar = new JProgressBar(SwingConstants.VERTICAL, 0, EVALUATION_RANGE);
+    private AnalysisService.Analysis analysis;
+    private EdtCoalescer analysisUpdates;
+    private TurnPlan hint;
+    private Position hintWorker;
+
+    /** Fastest rate, in milliseconds between updates, at which analysis progress reaches the screen. */
+    private static final int ANALYSIS_UPDATE_MILLIS = 100;
+    private static final int EVALUATION_RANGE = 1000;
+    /** Score at which the evaluation bar is three quarters full for one side. */
+    private static final double EVALUATION_SCALE = 300;
 
     /**
      * GUI constructor for custom GodCard assignment.
@@ -42,6 +74,13 @@ public class GUI extends JFrame {
 
         setTitle("Santorini");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                aiExecutor.close();
+                analysisService.close();
+            }
+        });
         setSize(600, 680);
         setLayout(new BorderLayout());
 
@@ -54,9 +93,8 @@ public class GUI extends JFrame {
         game.assignGodCard(game.getPlayer2(), p2Card);
 
         validMovePositions = new ArrayList<>();
-        placeWorkersRandomly();
 
-        boardPanel = new JPanel(new GridLayout(5, 5));
+        boardPanel = new JPanel(new GridLayout(game.getBoard().getSize(), game.getBoard().getSize()));
         boardPanel.setPreferredSize(new Dimension(600, 600));
         initializeBoard();
 
@@ -65,7 +103,7 @@ public class GUI extends JFrame {
 
         statusLabel = new JLabel();
         statusLabel.setFont(new Font("Arial", Font.BOLD, 14));
-        updateStatusWithGodInfo("Player1's turn - Select a worker");
+        updateStatusWithGodInfo("Player1 - Place worker 1");
 
         skipButton = new JButton("Skip GodCard Action");
         skipButton.setFont(new Font("Arial", Font.BOLD, 12));
@@ -73,7 +111,7 @@ public class GUI extends JFrame {
         skipButton.setVisible(false);
 
         statusPanel.add(statusLabel, BorderLayout.WEST);
-        statusPanel.add(skipButton, BorderLayout.EAST);
+        statusPanel.add(createAnalysisControls(), BorderLayout.EAST);
 
         timerLabel1 = new JLabel("Player1 Time: 15:00");
         timerLabel2 = new JLabel("Player2 Time: 15:00");
@@ -88,12 +126,14 @@ public class GUI extends JFrame {
 
         add(boardPanel, BorderLayout.CENTER);
         add(statusPanel, BorderLayout.SOUTH);
+        add(evaluationBar, BorderLayout.EAST);
 
         // UI timer: update every 0.5 seconds
         uiTimer = new javax.swing.Timer(500, e -> updateTimerLabels());
         uiTimer.start();
 
         setVisible(true);
+        startPondering();
     }
 
     /**
@@ -103,10 +143,29 @@ public class GUI extends JFrame {
      * @param mode Selected game mode
      */
     public GUI(GodCard p1Card, GodCard p2Card, GameMode mode) {
+        this(p1Card, p2Card, mode, Difficulty.MEDIUM);
+    }
+
+    /**
+     * GUI constructor for custom GodCard assignment, game mode and computer difficulty.
+     * @param p1Card Player 1's GodCard
+     * @param p2Card Player 2's GodCard
+     * @param mode Selected game mode
+     * @param difficulty Selected computer difficulty, used in single player mode, or null for the
+     *                   computer to budget its thinking time from its clock
+     */
+    public GUI(GodCard p1Card, GodCard p2Card, GameMode mode, Difficulty difficulty) {
         this.useGodCards = true;
 
         setTitle("Santorini");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                aiExecutor.close();
+                analysisService.close();
+            }
+        });
         setSize(600, 680);
         setLayout(new BorderLayout());
 
@@ -116,11 +175,13 @@ public class GUI extends JFrame {
         // Assign selected GodCards to each player
         game.assignGodCard(game.getPlayer1(), p1Card);
         game.assignGodCard(game.getPlayer2(), p2Card);
+        if (game.getPlayer2() instanceof ComputerPlayer computer && difficulty != null) {
+            computer.setDifficulty(difficulty);
+        }
 
         validMovePositions = new ArrayList<>();
-        placeWorkersRandomly();
 
-        boardPanel = new JPanel(new GridLayout(5, 5));
+        boardPanel = new JPanel(new GridLayout(game.getBoard().getSize(), game.getBoard().getSize()));
         boardPanel.setPreferredSize(new Dimension(600, 600));
         initializeBoard();
 
@@ -129,7 +190,7 @@ public class GUI extends JFrame {
 
         statusLabel = new JLabel();
         statusLabel.setFont(new Font("Arial", Font.BOLD, 14));
-        updateStatusWithGodInfo("Player1's turn - Select a worker");
+        updateStatusWithGodInfo("Player1 - Place worker 1");
 
         skipButton = new JButton("Skip GodCard Action");
         skipButton.setFont(new Font("Arial", Font.BOLD, 12));
@@ -137,7 +198,7 @@ public class GUI extends JFrame {
         skipButton.setVisible(false);
 
         statusPanel.add(statusLabel, BorderLayout.WEST);
-        statusPanel.add(skipButton, BorderLayout.EAST);
+        statusPanel.add(createAnalysisControls(), BorderLayout.EAST);
 
         timerLabel1 = new JLabel("Player1 Time: 15:00");
         timerLabel2 = new JLabel("Player2 Time: 15:00");
@@ -152,12 +213,14 @@ public class GUI extends JFrame {
 
         add(boardPanel, BorderLayout.CENTER);
         add(statusPanel, BorderLayout.SOUTH);
+        add(evaluationBar, BorderLayout.EAST);
 
         // UI timer: update every 0.5 seconds
         uiTimer = new javax.swing.Timer(500, e -> updateTimerLabels());
         uiTimer.start();
 
         setVisible(true);
+        startPondering();
     }
 
     private static GameMode promptGameMode() {
@@ -175,6 +238,32 @@ public class GUI extends JFrame {
         return (choice == 0) ? GameMode.SINGLE_PLAYER : GameMode.MULTIPLAYER;
     }
 
+    /**
+     * Builds the hint button, the evaluation toggle and the God Card skip button.
+     */
+    private JPanel createAnalysisControls() {
+        hintButton.setFont(new Font("Arial", Font.BOLD, 12));
+        hintButton.addActionListener(e -> showHint());
+        evaluationToggle.setFont(new Font("Arial", Font.BOLD, 12));
+        evaluationToggle.addActionListener(e -> {
+            evaluationBar.setVisible(evaluationToggle.isSelected());
+            if (evaluationToggle.isSelected()) {
+                startAnalysis(false);
+            } else {
+                cancelAnalysis();
+            }
+        });
+        evaluationBar.setValue(EVALUATION_RANGE / 2);
+        evaluationBar.setToolTipText("Player1 advantage");
+        evaluationBar.setVisible(false);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        controls.add(hintButton);
+        controls.add(evaluationToggle);
+        controls.add(skipButton);
+        return controls;
+    }
+
     private void updateStatusWithGodInfo(String baseStatus) {
         Player currentPlayer = game.getCurrentPlayer();
         String godCardInfo =
@@ -184,36 +273,74 @@ public class GUI extends JFrame {
         statusLabel.setText(baseStatus + godCardInfo);
     }
 
-    private void placeWorkersRandomly() {
-        Board board = game.getBoard();
-        Player player1 = game.getCurrentPlayer();
-        Player player2 = game.getPlayer2();
+    /**
+     * Places the current player's next worker during the placement phase.
+     */
+    private void handlePlacementClick(Position pos) {
+        if (!game.placeWorker(pos)) {
+            return;
+        }
+        initializeBoard();
+        if (game.getState() == GameState.PLACEMENT) {
+            if (!(game.getCurrentPlayer() instanceof ComputerPlayer)) {
+                updateStatusWithGodInfo(game.getCurrentPlayer().getName() + " - Place worker "
+                        + game.getNextWorkerToPlace().getId());
+            }
+        } else {
+            placementFinished();
+        }
+    }
 
-        placeWorkerRandomly(board, player1.getWorkers()[0]);
-        placeWorkerRandomly(board, player1.getWorkers()[1]);
-        placeWorkerRandomly(board, player2.getWorkers()[0]);
-        placeWorkerRandomly(board, player2.getWorkers()[1]);
+    /**
+     * Places both of the computer's workers from its placement table. The lookup itself is instant,
+     * but the first one may have to compute the table, so it runs on the AI thread like a turn.
+     */
+    private void placeComputerWorkers(ComputerPlayer ai) {
+        if (pendingPlacement != null) {
+            return;
+        }
+        updateStatusWithGodInfo(ai.getName() + " is placing workers...");
+        pendingPlacement = aiExecutor.submitPlacement(ai, BoardState.capture(game));
+        pendingPlacement.whenComplete((placements, error) -> SwingUtilities.invokeLater(
+                () -> applyComputerPlacement(ai, placements, error)));
     }
 
-    private void placeWorkerRandomly(Board board, Worker worker) {
-        while (true) {
-            int x = random.nextInt(5);
-            int y = random.nextInt(5);
-            Position pos = new Position(x, y);
-            Cell cell = board.getCell(pos);
-            if (!cell.isOccupied()) {
-                board.placeWorker(worker, pos);
-                break;
-            }
+    /**
+     * Places the workers chosen on the AI thread. Runs on the event thread.
+     */
+    private void applyComputerPlacement(ComputerPlayer ai, List<Position> placements, Throwable error) {
+        pendingPlacement = null;
+        // Discard a placement for a game that has moved on (window closed or a new game started)
+        if (!isDisplayable() || game.getState() != GameState.PLACEMENT || game.getCurrentPlayer() != ai) {
+            return;
+        }
+        if (error != null) {
+            System.out.println("[AI] Placement failed: " + error);
+            return;
         }
+        for (Position position : placements) {
+            game.placeWorker(position);
+        }
+        initializeBoard();
+        if (game.getState() == GameState.PLAYING) {
+            placementFinished();
+        }
+    }
+
+    private void placementFinished() {
+        updateStatusWithGodInfo(game.getCurrentPlayer().getName() + "'s turn - Select a worker");
+        startPondering();
+        startAnalysis(false);
     }
 
     private void initializeBoard() {
+        BoardRebuildEvent event = new BoardRebuildEvent();
+        event.begin();
         boardPanel.removeAll();
         Board board = game.getBoard();
 
-        for (int i = 0; i < 5; i++) {
-            for (int j = 0; j < 5; j++) {
+        for (int i = 0; i < board.getSize(); i++) {
+            for (int j = 0; j < board.getSize(); j++) {
                 Position pos = new Position(i, j);
                 Cell cell = board.getCell(pos);
                 JButton button = new JButton();
@@ -225,6 +352,12 @@ public class GUI extends JFrame {
 
         boardPanel.revalidate();
         boardPanel.repaint();
+        event.end();
+        if (event.shouldCommit()) {
+            event.cells = boardPanel.getComponentCount();
+            event.highlighted = validMovePositions.size();
+            event.commit();
+        }
     }
 
     private void updateCellAppearance(JButton button, Cell cell) {
@@ -265,6 +398,19 @@ public class GUI extends JFrame {
             button.setBackground(Color.GREEN);
             button.setForeground(Color.BLACK);
         }
+
+        // Hinted turn: the worker, where it moves and where it builds
+        if (hint != null) {
+            Position position = cell.getPosition();
+            if (position.equals(hintWorker)) {
+                button.setBorder(BorderFactory.createLineBorder(Color.ORANGE, 4));
+            } else if (hint.getMoves().contains(position)) {
+                button.setBackground(Color.YELLOW);
+                button.setForeground(Color.BLACK);
+            } else if (hint.getBuilds().contains(position)) {
+                button.setBorder(BorderFactory.createLineBorder(Color.MAGENTA, 4));
+            }
+        }
     }
 
     private void calculateValidMovePositions() {
@@ -279,8 +425,8 @@ public class GUI extends JFrame {
                 int nx = currentPos.getX() + dx;
                 int ny = currentPos.getY() + dy;
 
-                if (nx >= 0 && nx < 5 && ny >= 0 && ny < 5) {
-                    Position newPos = new Position(nx, ny);
+                Position newPos = new Position(nx, ny);
+                if (game.getBoard().isValidPosition(newPos)) {
                     Cell newCell = game.getBoard().getCell(newPos);
 
                     // ArtemisCard: cannot move back to initial position on second move
@@ -317,8 +463,8 @@ public class GUI extends JFrame {
                 int nx = currentPos.getX() + dx;
                 int ny = currentPos.getY() + dy;
 
-                if (nx >= 0 && nx < 5 && ny >= 0 && ny < 5) {
-                    Position newPos = new Position(nx, ny);
+                Position newPos = new Position(nx, ny);
+                if (game.getBoard().isValidPosition(newPos)) {
                     Cell newCell = game.getBoard().getCell(newPos);
 
                     if (useGodCards
@@ -344,6 +490,13 @@ public class GUI extends JFrame {
             // Ignore clicks during computer's turn
             return;
         }
+        // The position is about to change, so the hint and evaluation no longer apply
+        cancelAnalysis();
+        if (game.getState() == GameState.PLACEMENT) {
+            handlePlacementClick(pos);
+            handleComputerTurnIfNeeded();
+            return;
+        }
         Board board = game.getBoard();
         Cell cell = board.getCell(pos);
 
@@ -389,6 +542,9 @@ public class GUI extends JFrame {
                 }
             } else if (validMovePositions.contains(pos)) {
                 if (game.getCurrentTurn().executeMove(cell)) {
+                    if (game.getCurrentTurn().getMoves().size() == 1) {
+                        aiExecutor.opponentMoved(pos); // Stop pondering if the prediction was wrong
+                    }
                     if (game.getCurrentTurn().isComplete()) {
                         if (game.switchTurn()) {
                             if (game.getState() == GameState.GAME_OVER) {
@@ -468,6 +624,7 @@ public class GUI extends JFrame {
                             updateStatusWithGodInfo(
                                     game.getCurrentPlayer().getName() + "'s turn - Select a worker");
                             initializeBoard();
+                            startAnalysis(false);
                         }
                     }
                 }
@@ -479,6 +636,7 @@ public class GUI extends JFrame {
     }
 
     private void handleSkip() {
+        cancelAnalysis();
         skipButton.setVisible(false);
         if (useGodCards
                 && game.getCurrentPlayer().getGodCard() instanceof ArtemisCard
@@ -512,6 +670,7 @@ public class GUI extends JFrame {
                 } else {
                     updateStatusWithGodInfo(game.getCurrentPlayer().getName() + "'s turn - Select a worker");
                     initializeBoard();
+                    startAnalysis(false);
                 }
             }
         }
@@ -553,6 +712,18 @@ public class GUI extends JFrame {
         }
     }
 
+    @Override
+    public void dispose() {
+        // Stop any computer search or analysis still running for this game
+        aiExecutor.close();
+        cancelAnalysis();
+        analysisService.close();
+        if (uiTimer != null) {
+            uiTimer.stop();
+        }
+        super.dispose();
+    }
+
     /** Returns to the main menu screen. */
     private void showMainMenu() {
         SwingUtilities.invokeLater(
@@ -604,6 +775,8 @@ public class GUI extends JFrame {
 
     private void handleComputerTurnIfNeeded() {
         if (game.getState() == GameState.GAME_OVER) {
+            aiExecutor.cancel();
+            cancelAnalysis();
             // Show winning message if game is over after AI move
             Player winner = game.getTurnManager().getWinner();
             JOptionPane.showMessageDialog(
@@ -615,35 +788,236 @@ public class GUI extends JFrame {
         }
         if (game.getCurrentPlayer() instanceof ComputerPlayer) {
             ComputerPlayer ai = (ComputerPlayer) game.getCurrentPlayer();
+            if (game.getState() == GameState.PLACEMENT) {
+                placeComputerWorkers(ai);
+                return;
+            }
             // Only proceed if we're in WORKER_SELECTION state and the turn is not complete
-            if (game.getCurrentTurn().getState() != TurnState.WORKER_SELECTION || 
-                game.getCurrentTurn().isComplete()) {
+            if (game.getCurrentTurn().getState() != TurnState.WORKER_SELECTION ||
+                game.getCurrentTurn().isComplete() || pendingComputerTurn != null) {
                 return;
             }
-            // Execute AI turn exactly once
-            ai.makeMove(game.getBoard());
-            // If the turn is now complete, handle turn switching
-            if (game.getCurrentTurn().isComplete()) {
-                // Increment moveCount before switching turn
-                ai.incrementMoveCount();
-                // Switch turn and handle next player
-                if (game.switchTurn()) {
-                    if (game.getState() == GameState.GAME_OVER) {
-                        // Show winning message if game is over after AI move
-                        Player winner = game.getTurnManager().getWinner();
-                        JOptionPane.showMessageDialog(
-                            this,
-                            "🏆 Game Over!\nWinner: " + winner.getName()
-                                    + "\nWinning condition: Reached level 3 or opponent stuck");
-                        showMainMenu();
-                    } else if (game.getCurrentPlayer() instanceof ComputerPlayer) {
-                        // Schedule next AI turn
-                        SwingUtilities.invokeLater(this::handleComputerTurnIfNeeded);
-                    } else {
-                        updateStatusWithGodInfo(game.getCurrentPlayer().getName() + "'s turn - Select a worker");
-                        initializeBoard();
-                    }
+            cancelAnalysis();
+            // Search a snapshot in the background and play the result back on the event thread
+            Turn turn = game.getCurrentTurn();
+            updateStatusWithGodInfo(ai.getName() + " is thinking...");
+            pendingComputerTurn = aiExecutor.submit(ai, BoardState.capture(game),
+                    info -> SwingUtilities.invokeLater(() -> {
+                        if (game.getCurrentTurn() == turn) {
+                            updateStatusWithGodInfo(ai.getName() + " is thinking... (" + info + ")");
+                        }
+                    }));
+            pendingComputerTurn.whenComplete((plan, error) -> SwingUtilities.invokeLater(
+                    () -> applyComputerTurn(ai, turn, plan, error)));
+        }
+    }
+
+    /**
+     * Plays the turn chosen by the background search. Runs on the event thread.
+     */
+    private void applyComputerTurn(ComputerPlayer ai, Turn turn, TurnPlan plan, Throwable error) {
+        pendingComputerTurn = null;
+        // Discard results for a turn that is no longer current (game ended or window closed)
+        if (!isDisplayable() || game.getState() == GameState.GAME_OVER || game.getCurrentTurn() != turn) {
+            return;
+        }
+        if (error != null) {
+            System.out.println("[AI] Search failed: " + error);
+        }
+        if (error != null || !plan.applyTo(turn, ai)) {
+            turn.setState(TurnState.COMPLETED);
+        }
+        // If the turn is now complete, handle turn switching
+        if (game.getCurrentTurn().isComplete()) {
+            // Increment moveCount before switching turn
+            ai.incrementMoveCount();
+            // Switch turn and handle next player
+            if (game.switchTurn()) {
+                if (game.getState() == GameState.GAME_OVER) {
+                    // Show winning message if game is over after AI move
+                    Player winner = game.getTurnManager().getWinner();
+                    JOptionPane.showMessageDialog(
+                        this,
+                        "🏆 Game Over!\nWinner: " + winner.getName()
+                                + "\nWinning condition: Reached level 3 or opponent stuck");
+                    showMainMenu();
+                } else if (game.getCurrentPlayer() instanceof ComputerPlayer) {
+                    // Schedule next AI turn
+                    SwingUtilities.invokeLater(this::handleComputerTurnIfNeeded);
+                } else {
+                    updateStatusWithGodInfo(game.getCurrentPlayer().getName() + "'s turn - Select a worker");
+                    initializeBoard();
+                    startPondering();
+                    startAnalysis(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Analyses the position for the human player to move and shows the best turn when it finishes.
+     */
+    private void showHint() {
+        if (startAnalysis(true)) {
+            updateStatusWithGodInfo(game.getCurrentPlayer().getName() + " - Finding a hint...");
+        }
+    }
+
+    /**
+     * Starts analysing the current position in the background, replacing any earlier analysis.
+     * Progress drives the evaluation bar; the final ranking becomes the hint if one was asked for.
+     * Only runs at the start of a human player's turn, since a half-played turn is not a position
+     * the engine can search.
+     * @param showHint whether to show the best turn when the analysis finishes
+     * @return true if an analysis was started
+     */
+    private boolean startAnalysis(boolean showHint) {
+        if ((!showHint && !evaluationToggle.isSelected())
+                || game.getState() != GameState.PLAYING
+                || game.getCurrentPlayer() instanceof ComputerPlayer
+                || game.getCurrentTurn().getState() != TurnState.WORKER_SELECTION) {
+            return false;
+        }
+        cancelAnalysis();
+        Turn turn = game.getCurrentTurn();
+        int side = game.getCurrentPlayer() == game.getPlayer2() ? 1 : 0;
+        AnalysisService.Analysis started = analysisService.start(BoardState.capture(game), 1);
+        analysis = started;
+        analysisUpdates = new EdtCoalescer(ANALYSIS_UPDATE_MILLIS, info -> {
+            if (analysis == started) {
+                showEvaluation(info.getScore(), side);
+                if (showHint) {
+                    updateStatusWithGodInfo(game.getCurrentPlayer().getName() + " - Finding a hint... (depth "
+                            + info.getDepth() + ")");
+                }
+            }
+        });
+        started.getPublisher().subscribe(analysisUpdates);
+        if (showHint) {
+            started.getResult().whenComplete((lines, error) -> SwingUtilities.invokeLater(() -> {
+                if (analysis == started && game.getCurrentTurn() == turn && error == null && !lines.isEmpty()) {
+                    showHintLine(lines.get(0));
                 }
+            }));
+        }
+        return true;
+    }
+
+    private void showHintLine(AnalysisLine line) {
+        hint = line.getTurn();
+        hintWorker = game.getCurrentPlayer().getWorker(hint.getWorkerIndex()).getCurrentCell().getPosition();
+        int score = line.getScore();
+        String outlook = score >= AlphaBetaStrategy.WIN_SCORE - AlphaBetaStrategy.MAX_PLY ? "winning"
+                : score <= -AlphaBetaStrategy.WIN_SCORE + AlphaBetaStrategy.MAX_PLY ? "losing"
+                : "score " + score;
+        updateStatusWithGodInfo(game.getCurrentPlayer().getName() + " - Hint: move to "
+                + hint.getMoves().get(0) + (hint.getBuilds().isEmpty() ? "" : ", build on " + hint.getBuilds().get(0))
+                + " (" + outlook + ", depth " + line.getDepth() + ")");
+        initializeBoard();
+    }
+
+    /**
+     * Shows a score on the evaluation bar, which fills towards Player1's advantage.
+     * @param score the score for the side to move
+     * @param side the side to move, 0 for Player1
+     */
+    private void showEvaluation(int score, int side) {
+        double forFirst = side == 0 ? score : -score;
+        double fraction = 0.5 + 0.5 * Math.tanh(forFirst / (2 * EVALUATION_SCALE));
+        evaluationBar.setValue((int) Math.round(fraction * EVALUATION_RANGE));
+        evaluationBar.setToolTipText("Player1 advantage: " + (int) forFirst);
+    }
+
+    /**
+     * Stops the running analysis and removes the hint from the board.
+     */
+    private void cancelAnalysis() {
+        if (analysis != null) {
+            analysis.cancel();
+            analysis = null;
+        }
+        if (analysisUpdates != null) {
+            analysisUpdates.cancel();
+            analysisUpdates = null;
+        }
+        if (hint != null) {
+            hint = null;
+            hintWorker = null;
+            initializeBoard();
+        }
+    }
+
+    /**
+     * Lets the computer search ahead on its predicted position while the human player thinks.
+     */
+    private void startPondering() {
+        if (game.getState() == GameState.PLAYING
+                && game.getPlayer2() instanceof ComputerPlayer ai
+                && game.getCurrentPlayer() != ai) {
+            aiExecutor.ponder(ai, BoardState.capture(game));
+        }
+    }
+
+    /**
+     * Receives analysis progress on any thread and hands only the newest report to the event thread,
+     * at most once per interval, so a fast search cannot flood the UI.
+     */
+    private static final class EdtCoalescer implements Flow.Subscriber<SearchInfo> {
+        private final AtomicReference<SearchInfo> latest = new AtomicReference<>();
+        private final javax.swing.Timer timer;
+        private final Consumer<SearchInfo> consumer;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        EdtCoalescer(int intervalMillis, Consumer<SearchInfo> consumer) {
+            this.consumer = consumer;
+            this.timer = new javax.swing.Timer(intervalMillis, e -> flush());
+            timer.start();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(SearchInfo info) {
+            latest.set(info);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            System.out.println("[AI] Analysis failed: " + error);
+            onComplete();
+        }
+
+        @Override
+        public void onComplete() {
+            SwingUtilities.invokeLater(() -> {
+                timer.stop();
+                flush();
+            });
+        }
+
+        /** Stops updates. Must be called on the event thread. */
+        void cancel() {
+            cancelled = true;
+            timer.stop();
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void flush() {
+            SearchInfo info = latest.getAndSet(null);
+            if (info != null && !cancelled) {
+                consumer.accept(info);
             }
         }
     }
@@ -3,6 +3,8 @@ import model.actions.BuildAction;
 import model.actions.MoveAction;
 import model.cards.ArtemisCard;
 import model.cards.DemeterCard;
+import model.ai.OpeningBook;
+import model.monitoring.SantoriniMetrics;
 
 /**
  * Entry point for the Santorini game.
@@ -11,6 +13,8 @@ public class Main {
 
     // Main java file to run the game
     public static void main(String[] args) {
+        SantoriniMetrics.register(); // Expose engine metrics over JMX
+        OpeningBook.getDefault(); // Map the opening book before the first game
         MenuUI.main(args); // Start at menu
     }
 }
\ No newline at end of file
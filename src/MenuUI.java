@@ -7,12 +7,14 @@ import model.cards.ArtemisCard;
 import model.cards.DemeterCard;
 import model.cards.TritonCard;
 import model.cards.GodCard;
+import model.enums.Difficulty;
 import model.enums.GameMode;
 
 /**
  * The main menu screen for the Santorini game.
  */
 public class MenuUI extends JFrame {
+    private static final String TIMED = "Timed (by the clock)";
 
     public MenuUI() {
         setTitle("Santorini - Main Menu");
@@ -49,6 +51,24 @@ public class MenuUI extends JFrame {
             if (modeChoice == -1) return;
             GameMode selectedMode = (modeChoice == 0) ? GameMode.SINGLE_PLAYER : GameMode.MULTIPLAYER;
 
+            // Computer difficulty selection; "Timed" leaves none, so the computer budgets from its clock
+            Difficulty difficulty = null;
+            if (selectedMode == GameMode.SINGLE_PLAYER) {
+                Object[] levels = new Object[Difficulty.values().length + 1];
+                System.arraycopy(Difficulty.values(), 0, levels, 0, Difficulty.values().length);
+                levels[levels.length - 1] = TIMED;
+                Object level = JOptionPane.showInputDialog(
+                    this,
+                    "Select Difficulty:",
+                    "Difficulty Selection",
+                    JOptionPane.PLAIN_MESSAGE,
+                    null,
+                    levels,
+                    Difficulty.MEDIUM);
+                if (level == null) return;
+                difficulty = level instanceof Difficulty chosen ? chosen : null;
+            }
+
             GodCard[] godCards = {new ArtemisCard(), new DemeterCard(), new TritonCard()};
             String[] godNames = {godCards[0].getName(), godCards[1].getName(), godCards[2].getName()};
             GodCard p1Card = null;
@@ -113,9 +133,10 @@ public class MenuUI extends JFrame {
 
             final GodCard finalP1Card = p1Card;
             final GodCard finalP2Card = p2Card;
+            final Difficulty finalDifficulty = difficulty;
             dispose();
-            // Pass selected GodCards and mode to GUI
-            SwingUtilities.invokeLater(() -> new GUI(finalP1Card, finalP2Card, selectedMode));
+            // Pass selected GodCards, mode and difficulty to GUI
+            SwingUtilities.invokeLater(() -> new GUI(finalP1Card, finalP2Card, selectedMode, finalDifficulty));
         });
 
         JButton exitBtn = createMenuButton("Exit");
@@ -1,27 +1,50 @@
 package model;
 
 /**
- * The game board with a 5x5 grid of cells.
+ * The game board: a square grid of cells, 5x5 in the standard game.
  */
 public class Board {
 
-    private static final int BOARD_SIZE = 5;
+    public static final int DEFAULT_SIZE = 5;
+    /** Smallest board that still leaves room to move with four workers. */
+    public static final int MIN_SIZE = 3;
+    /** Largest board the AI supports; it stores a board as one bit per cell in a long. */
+    public static final int MAX_SIZE = 8;
+
+    private final int size;
     private final Cell[][] cells;
 
     public Board() {
-        cells = new Cell[BOARD_SIZE][BOARD_SIZE];
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates an empty board.
+     * @param size the number of rows and columns
+     */
+    public Board(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE
+                    + ", got " + size);
+        }
+        this.size = size;
+        cells = new Cell[size][size];
         initializeBoard();
     }
 
     private void initializeBoard() {
         // Initialize each cell in the board
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 cells[row][col] = new Cell(new Position(row, col));
             }
         }
     }
 
+    public int getSize() {
+        return size;
+    }
+
     public Cell getCell(Position position) {
         if (isValidPosition(position)) {
             return cells[position.getX()][position.getY()];
@@ -32,7 +55,7 @@ public class Board {
     public boolean isValidPosition(Position position) {
         int row = position.getX();
         int col = position.getY();
-        return row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE;
+        return row >= 0 && row < size && col >= 0 && col < size;
     }
 
     public void placeWorker(Worker worker, Position position) {
@@ -10,6 +10,10 @@ import model.turns.Turn;
 import model.turns.TurnManager;
 import model.enums.TurnState;
 import model.enums.GameMode;
+import model.monitoring.SantoriniMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main class that manages the Santorini game
@@ -29,8 +33,17 @@ public class Game {
     private GameMode gameMode; // Game mode (single or multi player)
 
     public Game(GameMode mode) {
+        this(mode, Board.DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a game on a board of a different size, for example a reduced board for testing the AI.
+     * @param mode single or multi player
+     * @param boardSize the number of rows and columns
+     */
+    public Game(GameMode mode, int boardSize) {
         this.gameMode = mode;
-        this.board = new Board();
+        this.board = new Board(boardSize);
         this.state = GameState.SETUP;
         this.turnManager = new TurnManager(this);
         this.player1Timer = new Timer(INITIAL_TIME_MILLIS);
@@ -49,17 +62,82 @@ public class Game {
         // Set initial current player
         this.currentPlayer = player1;
         
-        // Set game state to PLAYING after initialization
-        this.state = GameState.PLAYING;
+        // Workers are placed before the first turn, see placeWorker
+        this.state = GameState.PLACEMENT;
+        SantoriniMetrics.getInstance().recordGameStarted();
         
-        // Initialize first turn
-        this.currentTurn = turnManager.createTurn(currentPlayer);
         player1Timer.reset(INITIAL_TIME_MILLIS);
         player2Timer.reset(INITIAL_TIME_MILLIS);
         player1Timer.start(); // Player 1 starts with their timer running
         player2Timer.pause();
     }
 
+    /**
+     * Returns the cells the current player may place their next worker on during the placement phase.
+     * @return the free cells, or an empty list once every worker is placed
+     */
+    public List<Position> getLegalPlacements() {
+        List<Position> placements = new ArrayList<>();
+        if (state != GameState.PLACEMENT) {
+            return placements;
+        }
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                Position position = new Position(row, col);
+                if (!board.getCell(position).isOccupied()) {
+                    placements.add(position);
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Places the current player's next unplaced worker. Player 1 places both workers, then player 2;
+     * after the last worker the game moves on to the first turn of player 1.
+     * @param position the cell to place the worker on
+     * @return true if the worker was placed
+     */
+    public boolean placeWorker(Position position) {
+        if (state != GameState.PLACEMENT) {
+            return false;
+        }
+        Cell cell = board.getCell(position);
+        Worker worker = getNextWorkerToPlace();
+        if (cell == null || cell.isOccupied() || worker == null) {
+            return false;
+        }
+        board.placeWorker(worker, position);
+        if (getNextWorkerToPlace() == null) {
+            if (currentPlayer == player1) {
+                updateCurrentPlayer();
+                player1Timer.pause();
+                player2Timer.start();
+            } else {
+                // Every worker is on the board: player 1 takes the first turn
+                updateCurrentPlayer();
+                state = GameState.PLAYING;
+                currentTurn = turnManager.createTurn(currentPlayer);
+                player2Timer.pause();
+                player1Timer.start();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current player's first worker that is not yet on the board.
+     * @return the worker, or null if both are placed
+     */
+    public Worker getNextWorkerToPlace() {
+        for (Worker worker : currentPlayer.getWorkers()) {
+            if (worker.getCurrentCell() == null) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
     /**
      * Switches turn to the next player
      * @return true if turn was successfully switched
@@ -70,10 +148,11 @@ public class Game {
         if (!turn.isComplete()) {
             return false;
         }
+        turn.recordEnd();
 
         // 2. Check for win/lose conditions
         if (turnManager.checkWinner()) {
-            state = GameState.GAME_OVER;
+            endGame();
             return true;
         }
 
@@ -189,12 +268,19 @@ public class Game {
     public void checkTimeAndEliminate() {
         if (player1Timer.isPlayerTimerExpired()) {
             player1.setEliminated(true);
-            state = GameState.GAME_OVER;
+            endGame();
         }
         if (player2Timer.isPlayerTimerExpired()) {
             player2.setEliminated(true);
-            state = GameState.GAME_OVER;
+            endGame();
+        }
+    }
+
+    private void endGame() {
+        if (state != GameState.GAME_OVER) {
+            SantoriniMetrics.getInstance().recordGameFinished();
         }
+        state = GameState.GAME_OVER;
     }
 
     // Getters and setters
@@ -0,0 +1,190 @@
+package model.ai;
+
+import model.Position;
+import model.monitoring.SantoriniMetrics;
+import model.players.ComputerPlayer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs computer turns off the Swing event thread.
+ * Searches execute one at a time on a virtual thread against a snapshot of the position;
+ * callers hand the resulting {@link TurnPlan} back to the event thread to play it.
+ * <p>
+ * While the opponent thinks, {@link #ponder} predicts their reply and searches the resulting
+ * position in advance. If that position is then submitted, the running or finished search is
+ * reused instead of starting again, and recorded as a decision taking only the time waited for it.
+ */
+public class AIExecutor implements AutoCloseable {
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("santorini-ai-", 0).factory());
+    private final AIStrategy predictor;
+    private volatile SearchContext active;
+    private volatile Ponder ponder;
+
+    public AIExecutor() {
+        this(new MinimaxStrategy(2));
+    }
+
+    /**
+     * @param predictor strategy used to guess the opponent's reply while pondering
+     */
+    public AIExecutor(AIStrategy predictor) {
+        this.predictor = predictor;
+    }
+
+    /**
+     * Starts a search for the computer player.
+     * @param player the player to move
+     * @param snapshot a copy of the position, taken on the event thread
+     * @param listener receives progress reports on the search thread, or null
+     * @return the chosen turn; completed with {@link TurnPlan#none()} if the search was cancelled
+     */
+    public CompletableFuture<TurnPlan> submit(ComputerPlayer player, BoardState snapshot, SearchListener listener) {
+        Ponder pondered = ponder;
+        ponder = null;
+        if (pondered != null) {
+            if (pondered.isFor(snapshot)) {
+                long submitted = System.nanoTime();
+                SantoriniMetrics.getInstance().recordPonder(true);
+                pondered.listener = listener;
+                active = pondered.context;
+                return pondered.result.whenComplete((plan, error) -> {
+                    clearActive(pondered.context);
+                    if (plan != null && !plan.isNone()) {
+                        // The turn is counted as a decision taking only the wait left after the opponent moved
+                        SearchContext context = pondered.context;
+                        SantoriniMetrics.getInstance().recordDecision(pondered.decisionName,
+                                System.nanoTime() - submitted, context.getDepth(), context.getNodes());
+                    }
+                });
+            }
+            pondered.context.cancel();
+            SantoriniMetrics.getInstance().recordPonder(false);
+        }
+
+        SearchContext context = new SearchContext(listener);
+        active = context;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (context.isCancelled()) {
+                    return TurnPlan.none();
+                }
+                TurnPlan plan = player.planMove(snapshot, context);
+                return context.isCancelled() ? TurnPlan.none() : plan;
+            } finally {
+                clearActive(context);
+            }
+        }, executor);
+    }
+
+    /**
+     * Chooses where the computer player places its workers, on the search thread, since the first
+     * placement may have to compute the {@link PlacementTable}.
+     * @param player the player to place
+     * @param snapshot a copy of the placement phase, taken on the event thread
+     * @return the cells to place the workers on, in order
+     */
+    public CompletableFuture<List<Position>> submitPlacement(ComputerPlayer player, BoardState snapshot) {
+        return CompletableFuture.supplyAsync(() -> player.planPlacement(snapshot), executor);
+    }
+
+    /**
+     * Searches ahead while the opponent is to move. Replaces any earlier ponder.
+     * @param player the computer player who moves after the opponent
+     * @param snapshot a copy of the position with the opponent to move
+     */
+    public void ponder(ComputerPlayer player, BoardState snapshot) {
+        cancelPonder();
+        Ponder task = new Ponder();
+        ponder = task;
+        task.result = CompletableFuture.supplyAsync(() -> {
+            if (task.context.isCancelled()) {
+                return TurnPlan.none();
+            }
+            TurnPlan reply = predictor.planTurn(snapshot, new SearchContext());
+            if (reply.isNone() || task.context.isCancelled()) {
+                return TurnPlan.none();
+            }
+            task.expectedReply = reply;
+            task.predicted = reply.playOn(snapshot);
+            TurnPlan plan = player.ponderMove(task.predicted, task.context);
+            task.decisionName = player.decisionName();
+            return task.context.isCancelled() ? TurnPlan.none() : plan;
+        }, executor);
+    }
+
+    /**
+     * Tells the ponder where the opponent actually moved, so a wrong prediction stops at once.
+     * @param destination the cell the opponent's worker moved to
+     */
+    public void opponentMoved(Position destination) {
+        Ponder task = ponder;
+        if (task != null && task.expectedReply != null
+                && !task.expectedReply.getMoves().get(0).equals(destination)) {
+            task.context.cancel();
+        }
+    }
+
+    /**
+     * Stops the running search and any ponder.
+     */
+    public void cancel() {
+        cancelPonder();
+        SearchContext context = active;
+        if (context != null) {
+            context.cancel();
+        }
+    }
+
+    public boolean isBusy() {
+        return active != null;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void cancelPonder() {
+        Ponder task = ponder;
+        ponder = null;
+        if (task != null) {
+            task.context.cancel();
+        }
+    }
+
+    private void clearActive(SearchContext context) {
+        if (active == context) {
+            active = null;
+        }
+    }
+
+    /**
+     * A search started on a predicted position during the opponent's turn.
+     */
+    private static class Ponder {
+        private final SearchContext context = new SearchContext(this::forward);
+        private volatile SearchListener listener;
+        private volatile TurnPlan expectedReply;
+        private volatile BoardState predicted;
+        private volatile String decisionName;
+        private CompletableFuture<TurnPlan> result;
+
+        private boolean isFor(BoardState actual) {
+            BoardState expected = predicted;
+            return expected != null && expected.equals(actual) && !context.isCancelled();
+        }
+
+        private void forward(SearchInfo info) {
+            SearchListener target = listener;
+            if (target != null) {
+                target.onProgress(info);
+            }
+        }
+    }
+}
@@ -1,18 +1,60 @@
 package model.ai;
 
 import model.Board;
+import model.enums.TurnState;
 import model.players.ComputerPlayer;
 import model.turns.Turn;
 
+import java.util.List;
+
 /**
  * Interface for AI strategies.
  */
 public interface AIStrategy {
     /**
-     * Calculate a move for the computer player.
+     * Choose a turn for the side to move. Implementations work only on the snapshot,
+     * so they may run on a background thread while the game stays responsive.
+     * @param state A detached copy of the position
+     * @param context Statistics, progress reporting and cancellation for this search
+     * @return The chosen turn, or {@link TurnPlan#none()} if there is no legal turn
+     */
+    TurnPlan planTurn(BoardState state, SearchContext context);
+
+    /**
+     * Ranks the best turns for the side to move, for hints, post-game review and puzzles. Works only on
+     * the snapshot, like {@link #planTurn}. Strategies that cannot rank several turns in one search
+     * return just the turn {@link #planTurn} chooses, with the score it last reported.
+     * @param state A detached copy of the position
+     * @param lines The most turns to return
+     * @param context Statistics, progress reporting and cancellation for this search
+     * @return Up to {@code lines} lines, best first; empty if there is no legal turn
+     */
+    default List<AnalysisLine> analyse(BoardState state, int lines, SearchContext context) {
+        TurnPlan plan = planTurn(state, context);
+        if (plan.isNone() || lines <= 0) {
+            return List.of();
+        }
+        return List.of(new AnalysisLine(plan, context.getScore(), context.getDepth(), List.of(plan)));
+    }
+
+    /**
+     * Name under which the last turn is recorded in metrics and events. Strategies that hand each turn
+     * to one of several engines return the engine that played it.
+     */
+    default String decisionName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Calculate a move for the computer player and play it on the current turn.
      * @param player The computer player
      * @param turn The current turn
      * @param board The game board
      */
-    void calculateMove(ComputerPlayer player, Turn turn, Board board);
-} 
\ No newline at end of file
+    default void calculateMove(ComputerPlayer player, Turn turn, Board board) {
+        TurnPlan plan = planTurn(BoardState.capture(player.getGame()), new SearchContext());
+        if (!plan.applyTo(turn, player)) {
+            turn.setState(TurnState.COMPLETED);
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package model.ai;
+
+import model.monitoring.SantoriniMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Iterative deepening alpha-beta search over complete turns.
+ * By default it is a principal variation search: after the first turn at a node, every turn is
+ * searched with a null window and only re-searched with the full window if it beats the best so far.
+ * Quiet turns late in the order are searched with a reduced depth first, and each iteration starts
+ * with an aspiration window around the previous iteration's score. Each refinement can be turned off
+ * separately, which gives plain alpha-beta when all are off.
+ *
+ * The transposition table and history table belong to the strategy instance, so a
+ * {@link model.players.ComputerPlayer} that keeps one strategy for the whole game starts
+ * every search with the results of its previous searches (and of its pondering).
+ */
+public class AlphaBetaStrategy implements AIStrategy {
+    /** Score of a won position; wins found sooner score higher. */
+    public static final int WIN_SCORE = 10000;
+    public static final int MAX_PLY = 64;
+
+    /**
+     * The evaluator used when none is given: {@code bitboard} (the default), {@code incremental},
+     * {@code weighted} or {@code cached}, which give the same scores at different speeds, or
+     * {@code nnue}, the network in {@link NnueEvaluator#DEFAULT_FILE}.
+     */
+    public static final String DEFAULT_EVALUATOR = System.getProperty("santorini.ai.evaluator", "bitboard");
+    private static final int DEFAULT_TABLE_BITS = 20;
+    private static final int CHECK_INTERVAL = 1023;
+    private static final int DEFAULT_ASPIRATION_WINDOW = 60;
+    /** Turns searched at full depth at a node before later quiet turns are reduced. */
+    private static final int FULL_DEPTH_TURNS = 3;
+    /** Shallowest remaining depth at which turns are reduced. */
+    private static final int REDUCTION_DEPTH = 3;
+
+    private long timeLimitMillis;
+    private final int maxDepth;
+    private long nodeLimit;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private HistoryTable history;
+    private final int[][] turnBuffers = new int[MAX_PLY + 1][BoardState.MAX_TURNS];
+    private final int[][] orderBuffers = new int[MAX_PLY + 1][BoardState.MAX_TURNS];
+
+    private SearchContext context;
+    private long deadline;
+    private long nodeStop;
+    private boolean stopped;
+    private int rootBest;
+    private int extensionLimit;
+    private boolean threatExtensions;
+    private boolean principalVariationSearch = true;
+    private boolean lateMoveReductions = true;
+    private int aspirationWindow = DEFAULT_ASPIRATION_WINDOW;
+    private Symmetry symmetry;
+
+    /**
+     * Creates a search with a one second budget per turn.
+     */
+    public AlphaBetaStrategy() {
+        this(1000, MAX_PLY);
+    }
+
+    /**
+     * @param timeLimitMillis thinking time per turn, or 0 for no time limit
+     * @param maxDepth the deepest iteration to run, in plies
+     */
+    public AlphaBetaStrategy(long timeLimitMillis, int maxDepth) {
+        this(timeLimitMillis, maxDepth, createEvaluator(DEFAULT_EVALUATOR));
+    }
+
+    /**
+     * @param timeLimitMillis thinking time per turn, or 0 for no time limit
+     * @param maxDepth the deepest iteration to run, in plies
+     * @param evaluator scores the positions at the search horizon
+     */
+    public AlphaBetaStrategy(long timeLimitMillis, int maxDepth, Evaluator evaluator) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxDepth = Math.min(maxDepth, MAX_PLY);
+        this.evaluator = evaluator;
+        this.table = new TranspositionTable(DEFAULT_TABLE_BITS);
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Creates an evaluator by name, see {@link #DEFAULT_EVALUATOR}.
+     * The incremental evaluator checks every score against a full evaluation when the
+     * {@code santorini.ai.verifyEvaluation} system property is true. Cached evaluators all share
+     * {@link EvaluationCache#getDefault()}. If the network cannot be read, the bitboard evaluator is
+     * used instead.
+     * @param name {@code bitboard}, {@code incremental}, {@code weighted}, {@code cached} or {@code nnue}
+     * @return the evaluator
+     */
+    public static Evaluator createEvaluator(String name) {
+        return switch (name) {
+            case "bitboard" -> new BitboardEvaluator(new WeightedEvaluator());
+            case "incremental" -> new IncrementalEvaluator(new WeightedEvaluator());
+            case "weighted" -> new WeightedEvaluator();
+            case "cached" -> new CachedEvaluator(createEvaluator("bitboard"), EvaluationCache.getDefault());
+            case "nnue" -> loadNetwork();
+            default -> throw new IllegalArgumentException("Unknown evaluator: " + name);
+        };
+    }
+
+    private static Evaluator loadNetwork() {
+        Path file = Path.of(NnueEvaluator.DEFAULT_FILE);
+        try {
+            NnueEvaluator network = NnueEvaluator.load(file);
+            System.out.println("[AI] Network " + file + ": " + network.getHidden() + " hidden units");
+            return network;
+        } catch (IOException e) {
+            System.out.println("[AI] Could not read network " + file + " (" + e.getMessage()
+                    + "), using the bitboard evaluator");
+            return createEvaluator("bitboard");
+        }
+    }
+
+    /**
+     * Changes the thinking time for the following searches, for example to spread a clock over the game.
+     * @param timeLimitMillis thinking time per turn, or 0 for no time limit
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = Math.max(0, timeLimitMillis);
+    }
+
+    public long getTimeLimit() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * Limits each search to a number of nodes, counted on its {@link SearchContext} together with any
+     * nodes already counted there, such as a late-game solver's. The limit is checked with the time
+     * limit, so it costs nothing extra per node. With a limit set, the transposition and history tables
+     * are cleared before every search, so that with no time limit the chosen turn depends only on the
+     * position and not on earlier searches, pondering or the speed of the machine.
+     * @param nodeLimit the most nodes per search, or 0 for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = Math.max(0, nodeLimit);
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Turns the threat extension on or off. When on, a position at the horizon whose side to move must
+     * stop a climb to level 3 is searched one ply further instead of evaluated, so an answer that fails
+     * is seen. Extensions stop at twice the iteration depth. Off by default: in self-play at 100 and
+     * 300 ms per turn the shallower nominal depth cost more than the extensions found.
+     * @param enabled whether to extend forcing lines
+     */
+    public void setThreatExtensions(boolean enabled) {
+        this.threatExtensions = enabled;
+    }
+
+    public boolean isThreatExtensions() {
+        return threatExtensions;
+    }
+
+    /**
+     * Turns principal variation search on or off. When off, every turn is searched with the full window.
+     * @param enabled whether to search turns after the first with a null window
+     */
+    public void setPrincipalVariationSearch(boolean enabled) {
+        this.principalVariationSearch = enabled;
+    }
+
+    public boolean isPrincipalVariationSearch() {
+        return principalVariationSearch;
+    }
+
+    /**
+     * Turns late move reductions on or off. When on, a quiet turn (one that neither climbs nor builds a
+     * dome, played when the mover faces no climb threat) that comes after the first few in the move
+     * order is searched one ply shallower, or two if it comes very late, and searched again at full
+     * depth if it beats the best score so far.
+     * @param enabled whether to reduce late quiet turns
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Sets the half-width of the aspiration window. Each iteration from the third on first searches
+     * the root with this window around the previous score, and widens it on a fail low or high.
+     * @param window the half-width in evaluation units, or 0 to always search with the full window
+     */
+    public void setAspirationWindow(int window) {
+        this.aspirationWindow = Math.max(0, window);
+    }
+
+    public int getAspirationWindow() {
+        return aspirationWindow;
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        BoardState board = state.copy();
+        prepare(board, context);
+
+        int[] rootTurns = turnBuffers[0];
+        int count = board.generateTurns(rootTurns);
+        if (count == 0) {
+            return TurnPlan.none();
+        }
+        int best = TurnCodec.NONE;
+        for (int i = 0; i < count; i++) {
+            if (TurnCodec.isWin(rootTurns[i])) {
+                return TurnPlan.of(board, rootTurns[i]);
+            }
+        }
+
+        int score = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            extensionLimit = threatExtensions ? Math.min(2 * depth, MAX_PLY) : 0;
+            score = searchRoot(board, depth, score);
+            if (stopped) {
+                break;
+            }
+            best = rootBest;
+            context.setDepth(depth);
+            context.report(score, TurnPlan.of(board, best));
+            if (Math.abs(score) >= WIN_SCORE - MAX_PLY || count == 1 || depth >= board.turnBound()) {
+                break; // Result is proven, there is no choice or the search reached the end of every line
+            }
+        }
+        recordCounters();
+        if (best == TurnCodec.NONE) {
+            // Stopped before depth 1 finished: the turn reported for this search, e.g. a DeadlineStrategy's
+            // checked fallback, beats an unordered one
+            TurnPlan reported = context.getBestTurn();
+            return reported != null ? reported : TurnPlan.of(board, rootTurns[0]);
+        }
+        return TurnPlan.of(board, best);
+    }
+
+    /**
+     * Ranks the best turns in a single search. The root keeps the scores of the best {@code lines}
+     * turns exact: each later turn is first tried with a null window at the score of the worst line
+     * kept so far, reduced like the rest of the search if it is a late quiet turn, and searched with
+     * the full window only if it beats it. Each iteration searches the root in the order of the
+     * previous one, and the principal variations are read back from the transposition table.
+     */
+    @Override
+    public List<AnalysisLine> analyse(BoardState state, int lines, SearchContext context) {
+        BoardState board = state.copy();
+        prepare(board, context);
+        int[] rootTurns = new int[BoardState.MAX_TURNS];
+        int count = board.generateTurns(rootTurns);
+        lines = Math.min(lines, count);
+        if (lines <= 0) {
+            return List.of();
+        }
+
+        boolean reduce = lateMoveReductions && board.climbThreats(1 - board.sideToMove()) == 0;
+        int turnBound = board.turnBound();
+        int[] scores = new int[count];
+        boolean[] exact = new boolean[count];
+        List<AnalysisLine> result = List.of();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            extensionLimit = threatExtensions ? Math.min(2 * depth, MAX_PLY) : 0;
+            int[] iterationScores = new int[count];
+            boolean[] iterationExact = new boolean[count];
+            int[] kept = new int[lines]; // Best scores so far, in descending order
+            int keptCount = 0;
+            for (int i = 0; i < count && !stopped; i++) {
+                int turn = rootTurns[i];
+                int score;
+                boolean full = keptCount < lines;
+                if (TurnCodec.isWin(turn)) {
+                    score = WIN_SCORE - 1;
+                    full = true;
+                } else {
+                    int bound = full ? -WIN_SCORE - 1 : kept[lines - 1];
+                    int reduction = reduce && !full && depth >= REDUCTION_DEPTH && depth < turnBound
+                            && i >= lines + FULL_DEPTH_TURNS && isQuiet(board, turn) ? 1 : 0;
+                    board.play(turn);
+                    evaluator.played(board, turn);
+                    score = full ? -search(board, depth - 1, -WIN_SCORE - 1, WIN_SCORE + 1, 1)
+                            : -search(board, depth - 1 - reduction, -bound - 1, -bound, 1);
+                    if (reduction > 0 && score > bound && !stopped) {
+                        score = -search(board, depth - 1, -bound - 1, -bound, 1);
+                    }
+                    if (!full && score > bound && !stopped) {
+                        score = -search(board, depth - 1, -WIN_SCORE - 1, -bound, 1);
+                        full = score > bound; // Can still fail low, leaving an upper bound
+                    }
+                    board.undo(turn);
+                    evaluator.undone(board, turn);
+                }
+                iterationScores[i] = score;
+                iterationExact[i] = full;
+                if (full) {
+                    int at = Math.min(keptCount, lines - 1);
+                    while (at > 0 && kept[at - 1] < score) {
+                        kept[at] = kept[at - 1];
+                        at--;
+                    }
+                    kept[at] = score;
+                    keptCount = Math.min(keptCount + 1, lines);
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            System.arraycopy(iterationScores, 0, scores, 0, count);
+            System.arraycopy(iterationExact, 0, exact, 0, count);
+            sortLines(rootTurns, scores, exact, count);
+            context.setDepth(depth);
+            context.report(scores[0], TurnPlan.of(board, rootTurns[0]));
+
+            List<AnalysisLine> ranked = new ArrayList<>();
+            boolean proven = true;
+            for (int i = 0; i < lines; i++) {
+                ranked.add(new AnalysisLine(TurnPlan.of(board, rootTurns[i]), scores[i], depth,
+                        principalVariation(board, rootTurns[i], depth)));
+                proven &= Math.abs(scores[i]) >= WIN_SCORE - MAX_PLY;
+            }
+            result = ranked;
+            if (proven || depth >= turnBound) {
+                break;
+            }
+        }
+        recordCounters();
+        return result;
+    }
+
+    private void prepare(BoardState board, SearchContext context) {
+        if (history == null || history.cells() != board.geometry().cells() || nodeLimit > 0) {
+            history = new HistoryTable(board.size());
+        }
+        if (nodeLimit > 0) {
+            table.clear();
+        }
+        this.context = context;
+        this.symmetry = board.geometry().symmetry();
+        this.deadline = timeLimitMillis > 0 ? System.currentTimeMillis() + timeLimitMillis : Long.MAX_VALUE;
+        this.nodeStop = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+        this.stopped = false;
+        history.age();
+        table.newSearch(board.blockCount());
+        evaluator.reset(board);
+    }
+
+    private void recordCounters() {
+        long[] counters = table.drainCounters();
+        SantoriniMetrics.getInstance().recordTranspositionProbes(counters[0], counters[1]);
+        if (evaluator instanceof CachedEvaluator cached) {
+            long[] cacheCounters = cached.drainCounters();
+            SantoriniMetrics.getInstance().recordEvaluationCacheProbes(cacheCounters[0], cacheCounters[1]);
+        }
+    }
+
+    // Stable insertion sort by score, exact scores ahead of bounds with the same value
+    private static void sortLines(int[] turns, int[] scores, boolean[] exact, int count) {
+        for (int i = 1; i < count; i++) {
+            int turn = turns[i];
+            int score = scores[i];
+            boolean isExact = exact[i];
+            int j = i;
+            while (j > 0 && (scores[j - 1] < score || scores[j - 1] == score && isExact && !exact[j - 1])) {
+                turns[j] = turns[j - 1];
+                scores[j] = scores[j - 1];
+                exact[j] = exact[j - 1];
+                j--;
+            }
+            turns[j] = turn;
+            scores[j] = score;
+            exact[j] = isExact;
+        }
+    }
+
+    // Follows the best turns stored in the transposition table from the position after a root turn
+    private List<TurnPlan> principalVariation(BoardState root, int first, int length) {
+        List<TurnPlan> line = new ArrayList<>();
+        BoardState board = root.copy();
+        int[] turns = new int[BoardState.MAX_TURNS];
+        int turn = first;
+        while (turn != TurnCodec.NONE) {
+            line.add(TurnPlan.of(board, turn));
+            if (TurnCodec.isWin(turn) || line.size() >= length) {
+                break;
+            }
+            board.play(turn);
+            int transform = board.canonicalTransform();
+            long entry = table.probe(board.hash(transform));
+            int next = entry == 0 ? TurnCodec.NONE
+                    : symmetry.fromCanonical(board, TranspositionTable.turn(entry), transform);
+            turn = TurnCodec.NONE;
+            int count = board.generateTurns(turns);
+            for (int i = 0; i < count; i++) {
+                if (turns[i] == next) {
+                    turn = next;
+                }
+            }
+        }
+        return line;
+    }
+
+    // Searches the root inside an aspiration window around the previous score, widening it until the
+    // score falls inside
+    private int searchRoot(BoardState board, int depth, int previous) {
+        if (aspirationWindow == 0 || depth < 3 || Math.abs(previous) >= WIN_SCORE - MAX_PLY) {
+            return search(board, depth, -WIN_SCORE - 1, WIN_SCORE + 1, 0);
+        }
+        int delta = aspirationWindow;
+        int alpha = Math.max(previous - delta, -WIN_SCORE - 1);
+        int beta = Math.min(previous + delta, WIN_SCORE + 1);
+        while (true) {
+            int score = search(board, depth, alpha, beta, 0);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha && alpha > -WIN_SCORE - 1) {
+                beta = (alpha + beta) / 2;
+                alpha = Math.max(score - delta, -WIN_SCORE - 1);
+            } else if (score >= beta && beta < WIN_SCORE + 1) {
+                beta = Math.min(score + delta, WIN_SCORE + 1);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    private int search(BoardState board, int depth, int alpha, int beta, int ply) {
+        context.countNode();
+        if ((context.getNodes() & CHECK_INTERVAL) == 0 && (context.shouldStop()
+                || context.getNodes() >= nodeStop || System.currentTimeMillis() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        int[] turns = turnBuffers[ply];
+        int count = board.generateTurns(turns);
+        if (count == 0) {
+            return -(WIN_SCORE - ply); // A player who cannot move loses
+        }
+        for (int i = 0; i < count; i++) {
+            if (TurnCodec.isWin(turns[i])) {
+                if (ply == 0) {
+                    rootBest = turns[i];
+                }
+                return WIN_SCORE - ply - 1;
+            }
+        }
+        // Climb threats against the side to move. A turn can dome only one cell, so two threatened cells
+        // lose; one has to be answered, so at the horizon the answers are searched before evaluating
+        long threats = board.climbThreats(1 - board.sideToMove());
+        if (ply > 0 && Long.bitCount(threats) >= 2) {
+            return -(WIN_SCORE - ply - 2);
+        }
+        if (depth <= 0 && threats != 0 && ply < extensionLimit) {
+            depth = 1;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return evaluator.evaluate(board);
+        }
+
+        // Keyed on the canonical form, so a position and its mirror images share one entry
+        int transform = board.canonicalTransform();
+        long key = board.hash(transform);
+        int ttTurn = TurnCodec.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttTurn = symmetry.fromCanonical(board, TranspositionTable.turn(entry), transform);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int side = board.sideToMove();
+        int[] order = orderBuffers[ply];
+        for (int i = 0; i < count; i++) {
+            order[i] = turns[i] == ttTurn ? Integer.MAX_VALUE : history.score(side, turns[i]);
+        }
+
+        // Every turn but a win adds a block, so no line lasts more than turnBound plies. Searched at least
+        // that deep without reductions, every line reaches the end of the game and the score is exact at
+        // any depth
+        boolean exhaustive = depth >= board.turnBound();
+        int originalAlpha = alpha;
+        boolean reduce = lateMoveReductions && depth >= REDUCTION_DEPTH && threats == 0 && !exhaustive;
+        int bestScore = -WIN_SCORE - 1;
+        int bestTurn = TurnCodec.NONE;
+        for (int i = 0; i < count; i++) {
+            pickNext(turns, order, i, count);
+            int turn = turns[i];
+            int reduction = 0;
+            if (reduce && i >= FULL_DEPTH_TURNS && turn != ttTurn && isQuiet(board, turn)) {
+                reduction = i >= 4 * FULL_DEPTH_TURNS && depth > REDUCTION_DEPTH ? 2 : 1;
+            }
+            board.play(turn);
+            evaluator.played(board, turn);
+            int score;
+            if (i == 0 || !principalVariationSearch && reduction == 0) {
+                score = -search(board, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                // Cheap test that the turn is no better than alpha, searched properly only if it fails
+                int window = principalVariationSearch ? alpha + 1 : beta;
+                score = -search(board, depth - 1 - reduction, -window, -alpha, ply + 1);
+                if (score > alpha && reduction > 0 && !stopped) {
+                    score = -search(board, depth - 1, -window, -alpha, ply + 1);
+                }
+                if (score > alpha && score < beta && window != beta && !stopped) {
+                    score = -search(board, depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            board.undo(turn);
+            evaluator.undone(board, turn);
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestTurn = turn;
+                if (ply == 0) {
+                    rootBest = turn;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                history.reward(side, turn, depth);
+                break;
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, symmetry.toCanonical(bestTurn, transform), toTable(bestScore, ply),
+                exhaustive ? TranspositionTable.FULL_DEPTH : depth, bound, board.blockCount());
+        return bestScore;
+    }
+
+    // A turn that neither climbs nor domes a cell, so rarely changes the outcome by itself
+    private static boolean isQuiet(BoardState board, int turn) {
+        return board.height(TurnCodec.to(turn)) <= board.height(TurnCodec.from(turn))
+                && board.height(TurnCodec.build(turn)) < BoardState.WIN_LEVEL;
+    }
+
+    private static void pickNext(int[] turns, int[] order, int from, int count) {
+        int best = from;
+        for (int i = from + 1; i < count; i++) {
+            if (order[i] > order[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            int turn = turns[from];
+            turns[from] = turns[best];
+            turns[best] = turn;
+            int score = order[from];
+            order[from] = order[best];
+            order[best] = score;
+        }
+    }
+
+    // Win scores are stored relative to the node so they stay correct at any ply
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) return score + ply;
+        if (score <= -WIN_SCORE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) return score - ply;
+        if (score <= -WIN_SCORE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,58 @@
+package model.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One ranked turn from {@link AIStrategy#analyse}: the turn, its score and the line of play the
+ * search expects to follow it.
+ */
+public class AnalysisLine {
+    private final TurnPlan turn;
+    private final int score;
+    private final int depth;
+    private final List<TurnPlan> principalVariation;
+
+    /**
+     * @param turn the turn for the side to move
+     * @param score the score of the turn, from the point of view of the side to move
+     * @param depth the depth the score was searched to, in plies
+     * @param principalVariation the expected line, starting with the turn
+     */
+    public AnalysisLine(TurnPlan turn, int score, int depth, List<TurnPlan> principalVariation) {
+        this.turn = turn;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = Collections.unmodifiableList(new ArrayList<>(principalVariation));
+    }
+
+    public TurnPlan getTurn() {
+        return turn;
+    }
+
+    /**
+     * Score of the turn from the point of view of the side to move; scores near
+     * {@link AlphaBetaStrategy#WIN_SCORE} are forced wins or losses.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The expected line of play, alternating sides and starting with {@link #getTurn()}. Each plan is
+     * relative to the position reached by playing the ones before it with {@link TurnPlan#playOn}.
+     */
+    public List<TurnPlan> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisLine[score=" + score + ", depth=" + depth + ", pv=" + principalVariation + "]";
+    }
+}
@@ -0,0 +1,128 @@
+package model.ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Runs position analysis for hints and the evaluation display, off the Swing event thread.
+ * Analyses run one at a time on a virtual thread against a snapshot of the position, so the live
+ * game is never touched. Each one publishes a {@link SearchInfo} per completed iteration as the
+ * search deepens, and completes with the ranked lines from {@link AIStrategy#analyse}.
+ * Starting an analysis cancels the previous one.
+ */
+public class AnalysisService implements AutoCloseable {
+    /** Progress reports buffered per subscriber; further reports are dropped until it catches up. */
+    private static final int BUFFER_SIZE = 16;
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("santorini-analysis-", 0).factory());
+    // Hands progress reports to subscribers, so a slow one never holds up the search
+    private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+    private final AIStrategy strategy;
+    private volatile Analysis current;
+
+    /**
+     * Creates a service with a three second alpha-beta search per analysis.
+     */
+    public AnalysisService() {
+        this(new AlphaBetaStrategy(3000, AlphaBetaStrategy.MAX_PLY));
+    }
+
+    /**
+     * @param strategy the strategy to analyse with; only used by this service's thread
+     */
+    public AnalysisService(AIStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Starts analysing a position, cancelling any analysis still running.
+     * @param snapshot a copy of the position, taken on the thread that owns the game
+     * @param lines how many turns to rank
+     * @return the running analysis
+     */
+    public Analysis start(BoardState snapshot, int lines) {
+        cancel();
+        Analysis analysis = new Analysis(delivery);
+        current = analysis;
+        analysis.result = CompletableFuture.supplyAsync(() -> {
+            try {
+                List<AnalysisLine> ranked = analysis.context.isCancelled()
+                        ? List.of() : strategy.analyse(snapshot, lines, analysis.context);
+                analysis.publisher.close();
+                return ranked;
+            } catch (RuntimeException e) {
+                analysis.publisher.closeExceptionally(e);
+                throw e;
+            }
+        }, executor);
+        return analysis;
+    }
+
+    /**
+     * Stops the running analysis, if any.
+     */
+    public void cancel() {
+        Analysis analysis = current;
+        current = null;
+        if (analysis != null) {
+            analysis.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    /**
+     * One running analysis: a stream of progress reports and the final ranking.
+     */
+    public static class Analysis {
+        private final SubmissionPublisher<SearchInfo> publisher;
+        private final SearchContext context = new SearchContext(this::publish);
+        private CompletableFuture<List<AnalysisLine>> result;
+
+        private Analysis(ExecutorService delivery) {
+            this.publisher = new SubmissionPublisher<>(delivery, BUFFER_SIZE);
+        }
+
+        /**
+         * Progress reports, one per completed search depth. Completes when the analysis finishes or is
+         * cancelled. A slow subscriber misses intermediate reports rather than slowing the search.
+         */
+        public Flow.Publisher<SearchInfo> getPublisher() {
+            return publisher;
+        }
+
+        /**
+         * The ranked lines from the deepest completed iteration; empty if cancelled before the first.
+         */
+        public CompletableFuture<List<AnalysisLine>> getResult() {
+            return result;
+        }
+
+        /**
+         * Asks the search to stop. The result still completes, with the lines found so far.
+         */
+        public void cancel() {
+            context.cancel();
+        }
+
+        public boolean isCancelled() {
+            return context.isCancelled();
+        }
+
+        private void publish(SearchInfo info) {
+            if (!context.isCancelled()) {
+                publisher.offer(info, (subscriber, dropped) -> false);
+            }
+        }
+    }
+}
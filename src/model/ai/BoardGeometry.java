@@ -0,0 +1,170 @@
+package model.ai;
+
+/**
+ * Precomputed adjacency tables for a square board, shared by every search structure of that size.
+ * Cells are numbered row by row, so cell {@code row * size + col} matches {@code Position(row, col)}.
+ */
+public final class BoardGeometry {
+    /** Largest supported board; every cell must fit in one bit of a {@code long} mask. */
+    public static final int MAX_SIZE = 8;
+
+    private static final BoardGeometry[] CACHE = new BoardGeometry[MAX_SIZE + 1];
+
+    private final int size;
+    private final int cells;
+    private final int[][] neighbours;
+    private final int[][] rings;
+    private final long[] neighbourMasks;
+    private final long perimeterMask;
+    private final long boardMask;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+    private final Zobrist zobrist;
+    private final Symmetry symmetry;
+
+    private BoardGeometry(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.neighbours = new int[cells][];
+        this.rings = new int[cells][8];
+        this.neighbourMasks = new long[cells];
+        long perimeter = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            int[] buffer = new int[8];
+            int count = 0;
+            int direction = 0;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) continue;
+                    int nx = row + dx;
+                    int ny = col + dy;
+                    if (nx >= 0 && nx < size && ny >= 0 && ny < size) {
+                        buffer[count++] = nx * size + ny;
+                        neighbourMasks[cell] |= 1L << (nx * size + ny);
+                        rings[cell][direction] = nx * size + ny;
+                    } else {
+                        rings[cell][direction] = -1;
+                    }
+                    direction++;
+                }
+            }
+            neighbours[cell] = java.util.Arrays.copyOf(buffer, count);
+            if (row == 0 || col == 0 || row == size - 1 || col == size - 1) {
+                perimeter |= 1L << cell;
+            }
+        }
+        this.perimeterMask = perimeter;
+        this.boardMask = cells == 64 ? -1L : (1L << cells) - 1;
+        long firstColumn = 0;
+        long lastColumn = 0;
+        for (int row = 0; row < size; row++) {
+            firstColumn |= 1L << (row * size);
+            lastColumn |= 1L << (row * size + size - 1);
+        }
+        this.notFirstColumn = boardMask & ~firstColumn;
+        this.notLastColumn = boardMask & ~lastColumn;
+        this.zobrist = new Zobrist(cells);
+        this.symmetry = new Symmetry(this);
+    }
+
+    /**
+     * Returns the shared geometry for a board size.
+     * @param size the number of rows and columns
+     * @return the geometry
+     */
+    public static synchronized BoardGeometry of(int size) {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        if (CACHE[size] == null) {
+            CACHE[size] = new BoardGeometry(size);
+        }
+        return CACHE[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    public int row(int cell) {
+        return cell / size;
+    }
+
+    public int col(int cell) {
+        return cell % size;
+    }
+
+    public int cell(int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Cells adjacent to the given cell, including diagonals, in the row-major order the game uses.
+     * @param cell the cell index
+     * @return the neighbouring cell indexes; must not be modified
+     */
+    public int[] neighbours(int cell) {
+        return neighbours[cell];
+    }
+
+    /**
+     * The eight cells around a cell in a fixed direction order (row by row, skipping the centre),
+     * with -1 where the direction leaves the board. Used to encode 3x3 patterns.
+     * @param cell the cell index
+     * @return the ring of cells; must not be modified
+     */
+    public int[] ring(int cell) {
+        return rings[cell];
+    }
+
+    public long neighbourMask(int cell) {
+        return neighbourMasks[cell];
+    }
+
+    public boolean isAdjacent(int a, int b) {
+        return (neighbourMasks[a] & (1L << b)) != 0;
+    }
+
+    public boolean isPerimeter(int cell) {
+        return (perimeterMask & (1L << cell)) != 0;
+    }
+
+    public long perimeterMask() {
+        return perimeterMask;
+    }
+
+    /**
+     * Mask with one bit set for every cell of the board.
+     */
+    public long boardMask() {
+        return boardMask;
+    }
+
+    /**
+     * Grows a set of cells by one step in every direction, with shifts instead of a loop over the cells.
+     * @param mask the cells, one bit per cell index
+     * @return the cells in the mask together with all their neighbours
+     */
+    public long dilate(long mask) {
+        long row = mask | ((mask & notLastColumn) << 1) | ((mask & notFirstColumn) >>> 1);
+        return (row | (row << size) | (row >>> size)) & boardMask;
+    }
+
+    public Zobrist zobrist() {
+        return zobrist;
+    }
+
+    public Symmetry symmetry() {
+        return symmetry;
+    }
+
+    public int distance(int a, int b) {
+        return Math.abs(row(a) - row(b)) + Math.abs(col(a) - col(b));
+    }
+}
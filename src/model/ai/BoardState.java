@@ -0,0 +1,562 @@
+package model.ai;
+
+import model.Board;
+import model.Cell;
+import model.Game;
+import model.Position;
+import model.Worker;
+import model.cards.GodCard;
+import model.players.Player;
+
+import java.util.Arrays;
+
+/**
+ * Compact, self-contained copy of a game position used by the AI.
+ * Heights, domes and worker locations are held in primitive arrays, so a search can play
+ * and undo thousands of turns without touching the live {@link Board} or {@link model.turns.Turn}.
+ * Turns generated here follow the base rules (one move, then one build), which every God Card accepts.
+ */
+public class BoardState {
+    /** Height value used for a cell capped with a dome. */
+    public static final int DOME = 4;
+    /** Level that wins the game when a worker moves up onto it. */
+    public static final int WIN_LEVEL = 3;
+    /** Worker slots: 0 and 1 for the first player, 2 and 3 for the second. */
+    public static final int SLOTS = 4;
+    /** Upper bound on the number of turns one side can have in any position. */
+    public static final int MAX_TURNS = 2 * 8 * 8;
+
+    private final BoardGeometry geometry;
+    private final byte[] heights;
+    private final byte[] occupants;
+    private final long[] levelMasks;
+    private long occupiedMask;
+    private final int[] workers;
+    private final GodCard[] godCards;
+    private final Zobrist zobrist;
+    private int sideToMove;
+    private long hash;
+    private int blocks;
+    private final int[][] symmetryMaps;
+    private ClimbField[] climbFields; // Created on first use, see climbField
+
+    /**
+     * Creates an empty position with no workers placed.
+     * @param size the number of rows and columns
+     */
+    public BoardState(int size) {
+        this.geometry = BoardGeometry.of(size);
+        this.heights = new byte[geometry.cells()];
+        this.occupants = new byte[geometry.cells()];
+        this.levelMasks = new long[DOME + 1];
+        this.levelMasks[0] = geometry.boardMask();
+        this.workers = new int[SLOTS];
+        this.godCards = new GodCard[2];
+        this.zobrist = geometry.zobrist();
+        this.symmetryMaps = geometry.symmetry().maps();
+        Arrays.fill(workers, -1);
+    }
+
+    private BoardState(BoardState other) {
+        this.geometry = other.geometry;
+        this.heights = other.heights.clone();
+        this.occupants = other.occupants.clone();
+        this.levelMasks = other.levelMasks.clone();
+        this.occupiedMask = other.occupiedMask;
+        this.workers = other.workers.clone();
+        this.godCards = other.godCards.clone();
+        this.zobrist = other.zobrist;
+        this.sideToMove = other.sideToMove;
+        this.hash = other.hash;
+        this.blocks = other.blocks;
+        this.symmetryMaps = other.symmetryMaps;
+    }
+
+    /**
+     * Takes a snapshot of the live game with the current player to move.
+     * Must be called on the thread that owns the game (the Swing event thread in the GUI).
+     * @param game the game to copy
+     * @return a detached copy of the position
+     */
+    public static BoardState capture(Game game) {
+        return capture(game.getBoard(), game.getPlayer1(), game.getPlayer2(),
+                game.getCurrentPlayer() == game.getPlayer2() ? 1 : 0);
+    }
+
+    /**
+     * Takes a snapshot of a board outside of a running game, for analysis of any position.
+     * Must be called on the thread that owns the board.
+     * @param board the board to copy
+     * @param first the first player, whose workers take slots 0 and 1
+     * @param second the second player, whose workers take slots 2 and 3
+     * @param sideToMove 0 for the first player, 1 for the second
+     * @return a detached copy of the position
+     */
+    public static BoardState capture(Board board, Player first, Player second, int sideToMove) {
+        BoardState state = new BoardState(board.getSize());
+        for (int cell = 0; cell < state.geometry.cells(); cell++) {
+            Cell source = board.getCell(new Position(state.geometry.row(cell), state.geometry.col(cell)));
+            state.setHeight(cell, source.hasDome() ? DOME : Math.min(source.getHeight(), WIN_LEVEL));
+        }
+        Player[] players = {first, second};
+        for (int side = 0; side < 2; side++) {
+            state.godCards[side] = players[side].getGodCard();
+            Worker[] sideWorkers = players[side].getWorkers();
+            for (int i = 0; i < 2; i++) {
+                Cell cell = sideWorkers[i].getCurrentCell();
+                if (cell != null) {
+                    state.placeWorker(side * 2 + i,
+                            state.geometry.cell(cell.getPosition().getX(), cell.getPosition().getY()));
+                }
+            }
+        }
+        state.setSideToMove(sideToMove);
+        return state;
+    }
+
+    public BoardState copy() {
+        return new BoardState(this);
+    }
+
+    public BoardGeometry geometry() {
+        return geometry;
+    }
+
+    public int size() {
+        return geometry.size();
+    }
+
+    public int height(int cell) {
+        return heights[cell];
+    }
+
+    public boolean hasDome(int cell) {
+        return heights[cell] == DOME;
+    }
+
+    public boolean isOccupied(int cell) {
+        return occupants[cell] != 0;
+    }
+
+    /**
+     * Returns the cells of one height as a bitboard, bit {@code cell} set for each.
+     * @param height 0 to 3, or {@link #DOME}
+     */
+    public long levelMask(int height) {
+        return levelMasks[height];
+    }
+
+    /**
+     * Total number of blocks on the board, counting a dome as one block on top of level 3.
+     * Every turn that does not win adds exactly one, so the count only grows during a game: it is the
+     * position's stage, and no position of an earlier stage can ever be reached again.
+     */
+    public int blockCount() {
+        return blocks;
+    }
+
+    /**
+     * The most turns the game can still last, counting a final winning turn. Every other turn adds a
+     * block and a cell holds at most four, so this is exact as a bound, if loose early in the game.
+     */
+    public int turnBound() {
+        return geometry.cells() * DOME - blocks + 1;
+    }
+
+    /**
+     * Returns the cells with a worker on them as a bitboard.
+     */
+    public long occupiedMask() {
+        return occupiedMask;
+    }
+
+    /**
+     * Returns the worker slot standing on a cell.
+     * @param cell the cell index
+     * @return the slot, or -1 if the cell is empty
+     */
+    public int occupant(int cell) {
+        return occupants[cell] - 1;
+    }
+
+    /**
+     * Returns the cell a worker stands on.
+     * @param slot the worker slot
+     * @return the cell index, or -1 if the worker has not been placed
+     */
+    public int workerCell(int slot) {
+        return workers[slot];
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int side) {
+        if (side != sideToMove) {
+            hash ^= zobrist.side();
+            sideToMove = side;
+        }
+    }
+
+    /**
+     * Zobrist hash of the position, maintained incrementally by every mutator.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Hash the position would have after a board transform, computed from the built cells and the
+     * workers without building the transformed position.
+     * @param transform a {@link Symmetry} transform
+     */
+    public long hash(int transform) {
+        if (transform == Symmetry.IDENTITY) {
+            return hash;
+        }
+        int[] map = symmetryMaps[transform];
+        long result = sideToMove == 0 ? 0 : zobrist.side();
+        for (int height = 1; height <= DOME; height++) {
+            for (long cells = levelMasks[height]; cells != 0; cells &= cells - 1) {
+                result ^= zobrist.height(map[Long.numberOfTrailingZeros(cells)], height);
+            }
+        }
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (workers[slot] >= 0) {
+                result ^= zobrist.worker(sideOf(slot), map[workers[slot]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The transform that takes this position to its canonical form, the image with the smallest hash.
+     * Positions that are rotations or reflections of each other share a canonical form.
+     */
+    public int canonicalTransform() {
+        int best = Symmetry.IDENTITY;
+        long bestHash = hash;
+        for (int t = 1; t < Symmetry.COUNT; t++) {
+            long image = hash(t);
+            if (Long.compareUnsigned(image, bestHash) < 0) {
+                best = t;
+                bestHash = image;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Hash of the canonical form, the same for all eight images of the position.
+     */
+    public long canonicalHash() {
+        long best = hash;
+        for (int t = 1; t < Symmetry.COUNT; t++) {
+            long image = hash(t);
+            if (Long.compareUnsigned(image, best) < 0) {
+                best = image;
+            }
+        }
+        return best;
+    }
+
+    public GodCard godCard(int side) {
+        return godCards[side];
+    }
+
+    public void setGodCard(int side, GodCard card) {
+        godCards[side] = card;
+    }
+
+    public static int sideOf(int slot) {
+        return slot >> 1;
+    }
+
+    /**
+     * Returns the climb distances for a player, recomputing them only if a change to the board
+     * since the last call could have affected them.
+     * @param side the player
+     * @return the field, owned by this board and valid until the next change to it
+     */
+    public ClimbField climbField(int side) {
+        if (climbFields == null) {
+            climbFields = new ClimbField[]{new ClimbField(0, geometry.cells()), new ClimbField(1, geometry.cells())};
+        }
+        ClimbField field = climbFields[side];
+        if (!field.isValid()) {
+            field.compute(this);
+        }
+        return field;
+    }
+
+    /**
+     * Number of moves a worker of {@code side} on {@code cell} needs to reach the highest free level.
+     * @see ClimbField
+     */
+    public int climbDistance(int side, int cell) {
+        return climbField(side).distance(cell);
+    }
+
+    private void heightChanged(int cell) {
+        if (climbFields != null) {
+            climbFields[0].heightChanged(cell, heights[cell]);
+            climbFields[1].heightChanged(cell, heights[cell]);
+        }
+    }
+
+    private void occupancyChanged(int cell, int slot) {
+        if (climbFields != null) {
+            climbFields[0].occupancyChanged(cell, heights[cell], sideOf(slot));
+            climbFields[1].occupancyChanged(cell, heights[cell], sideOf(slot));
+        }
+    }
+
+    /**
+     * Finds the cells a player threatens to win on: free level 3 cells next to one of their workers on
+     * level 2. Costs a mask test when no level 3 cell is free, and one mask per worker otherwise.
+     * @param side the player
+     * @return the threatened cells as a bitmask, 0 if there is no threat
+     */
+    public long climbThreats(int side) {
+        long targets = levelMasks[WIN_LEVEL] & ~occupiedMask;
+        if (targets == 0) {
+            return 0;
+        }
+        long threats = 0;
+        for (int slot = side * 2; slot < side * 2 + 2; slot++) {
+            int cell = workers[slot];
+            if (cell >= 0 && heights[cell] == WIN_LEVEL - 1) {
+                threats |= geometry.neighbourMask(cell) & targets;
+            }
+        }
+        return threats;
+    }
+
+    /**
+     * Returns the highest level any worker of the side stands on.
+     */
+    public int maxWorkerHeight(int side) {
+        int max = 0;
+        for (int slot = side * 2; slot < side * 2 + 2; slot++) {
+            if (workers[slot] >= 0) {
+                max = Math.max(max, heights[workers[slot]]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Checks whether a worker on {@code from} may step to {@code to} under the base rules.
+     */
+    public boolean canMove(int from, int to) {
+        return geometry.isAdjacent(from, to)
+                && occupants[to] == 0
+                && heights[to] < DOME
+                && heights[to] <= heights[from] + 1;
+    }
+
+    /**
+     * Checks whether a worker on {@code from} may build on {@code at}.
+     */
+    public boolean canBuild(int from, int at) {
+        return geometry.isAdjacent(from, at) && occupants[at] == 0 && heights[at] < DOME;
+    }
+
+    public void placeWorker(int slot, int cell) {
+        int side = sideOf(slot);
+        if (workers[slot] >= 0) {
+            occupants[workers[slot]] = 0;
+            occupiedMask &= ~(1L << workers[slot]);
+            hash ^= zobrist.worker(side, workers[slot]);
+            occupancyChanged(workers[slot], slot);
+        }
+        workers[slot] = cell;
+        if (cell >= 0) {
+            occupants[cell] = (byte) (slot + 1);
+            occupiedMask |= 1L << cell;
+            hash ^= zobrist.worker(side, cell);
+            occupancyChanged(cell, slot);
+        }
+    }
+
+    /**
+     * Sets the height of a cell directly, for building positions outside of play.
+     */
+    public void setHeight(int cell, int height) {
+        hash ^= zobrist.height(cell, heights[cell]) ^ zobrist.height(cell, height);
+        levelMasks[heights[cell]] &= ~(1L << cell);
+        levelMasks[height] |= 1L << cell;
+        blocks += height - heights[cell];
+        heights[cell] = (byte) height;
+        heightChanged(cell);
+    }
+
+    /**
+     * Moves a worker without switching sides. Used when replaying God Card powers.
+     */
+    public void moveWorker(int slot, int to) {
+        int side = sideOf(slot);
+        hash ^= zobrist.worker(side, workers[slot]) ^ zobrist.worker(side, to);
+        int from = workers[slot];
+        occupants[from] = 0;
+        workers[slot] = to;
+        occupants[to] = (byte) (slot + 1);
+        occupiedMask ^= (1L << from) | (1L << to);
+        occupancyChanged(from, slot);
+        occupancyChanged(to, slot);
+    }
+
+    /**
+     * Adds one block (or a dome on level 3) to a cell without switching sides.
+     */
+    public void build(int cell) {
+        hash ^= zobrist.height(cell, heights[cell]) ^ zobrist.height(cell, heights[cell] + 1);
+        levelMasks[heights[cell]] ^= 1L << cell;
+        levelMasks[heights[cell] + 1] ^= 1L << cell;
+        heights[cell]++;
+        blocks++;
+        heightChanged(cell);
+    }
+
+    /**
+     * Lists every legal turn for the side to move.
+     * @param out buffer of at least {@link #MAX_TURNS} entries
+     * @return the number of turns written
+     */
+    public int generateTurns(int[] out) {
+        int count = 0;
+        for (int slot = sideToMove * 2; slot < sideToMove * 2 + 2; slot++) {
+            int from = workers[slot];
+            if (from < 0) continue;
+            int fromHeight = heights[from];
+            for (int to : geometry.neighbours(from)) {
+                int toHeight = heights[to];
+                if (occupants[to] != 0 || toHeight == DOME || toHeight > fromHeight + 1) continue;
+                if (toHeight == WIN_LEVEL && fromHeight < WIN_LEVEL) {
+                    out[count++] = TurnCodec.encodeWin(slot, from, to);
+                    continue;
+                }
+                for (int build : geometry.neighbours(to)) {
+                    if (build == from || (occupants[build] == 0 && heights[build] < DOME)) {
+                        out[count++] = TurnCodec.encode(slot, from, to, build);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the side to move has at least one legal move.
+     */
+    public boolean hasLegalTurn() {
+        for (int slot = sideToMove * 2; slot < sideToMove * 2 + 2; slot++) {
+            int from = workers[slot];
+            if (from < 0) continue;
+            for (int to : geometry.neighbours(from)) {
+                if (occupants[to] == 0 && heights[to] < DOME && heights[to] <= heights[from] + 1) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plays a turn produced by {@link #generateTurns} and passes the move to the other side.
+     */
+    public void play(int turn) {
+        int slot = TurnCodec.slot(turn);
+        int from = TurnCodec.from(turn);
+        int to = TurnCodec.to(turn);
+        occupants[from] = 0;
+        workers[slot] = to;
+        occupants[to] = (byte) (slot + 1);
+        occupiedMask ^= (1L << from) | (1L << to);
+        long delta = zobrist.worker(sideToMove, from) ^ zobrist.worker(sideToMove, to) ^ zobrist.side();
+        if (!TurnCodec.isWin(turn)) {
+            int build = TurnCodec.build(turn);
+            delta ^= zobrist.height(build, heights[build]) ^ zobrist.height(build, heights[build] + 1);
+            levelMasks[heights[build]] ^= 1L << build;
+            levelMasks[heights[build] + 1] ^= 1L << build;
+            heights[build]++;
+            blocks++;
+        }
+        hash ^= delta;
+        sideToMove ^= 1;
+        if (climbFields != null) {
+            climbTouched(turn);
+        }
+    }
+
+    /**
+     * Reverts a turn previously passed to {@link #play}.
+     */
+    public void undo(int turn) {
+        sideToMove ^= 1;
+        int slot = TurnCodec.slot(turn);
+        int from = TurnCodec.from(turn);
+        int to = TurnCodec.to(turn);
+        long delta = zobrist.worker(sideToMove, from) ^ zobrist.worker(sideToMove, to) ^ zobrist.side();
+        if (!TurnCodec.isWin(turn)) {
+            int build = TurnCodec.build(turn);
+            heights[build]--;
+            blocks--;
+            levelMasks[heights[build]] ^= 1L << build;
+            levelMasks[heights[build] + 1] ^= 1L << build;
+            delta ^= zobrist.height(build, heights[build]) ^ zobrist.height(build, heights[build] + 1);
+        }
+        hash ^= delta;
+        occupants[to] = 0;
+        workers[slot] = from;
+        occupants[from] = (byte) (slot + 1);
+        occupiedMask ^= (1L << from) | (1L << to);
+        if (climbFields != null) {
+            climbTouched(turn);
+        }
+    }
+
+    private void climbTouched(int turn) {
+        int slot = TurnCodec.slot(turn);
+        occupancyChanged(TurnCodec.from(turn), slot);
+        occupancyChanged(TurnCodec.to(turn), slot);
+        if (!TurnCodec.isWin(turn)) {
+            heightChanged(TurnCodec.build(turn));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BoardState other = (BoardState) o;
+        return sideToMove == other.sideToMove
+                && geometry == other.geometry
+                && Arrays.equals(heights, other.heights)
+                && Arrays.equals(workers, other.workers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("BoardState[toMove=" + sideToMove + "]\n");
+        for (int row = 0; row < size(); row++) {
+            for (int col = 0; col < size(); col++) {
+                int cell = geometry.cell(row, col);
+                text.append(heights[cell] == DOME ? "X" : String.valueOf(heights[cell]));
+                text.append(occupants[cell] == 0 ? ". " : (char) ('a' + occupants[cell] - 1) + " ");
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
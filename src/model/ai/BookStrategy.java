@@ -0,0 +1,76 @@
+package model.ai;
+
+/**
+ * Plays the {@link OpeningBook} turn for positions in the book, and otherwise defers to another strategy.
+ * The book stores turns for the canonical form of each position, so the stored turn is mapped back
+ * through the inverse transform and checked against the legal turns before it is played.
+ */
+public class BookStrategy implements AIStrategy {
+    private final OpeningBook book;
+    private final AIStrategy fallback;
+    private final int[] turns = new int[BoardState.MAX_TURNS];
+    private int lastIndex; // Book entry behind the last turn found by lookup
+
+    /**
+     * @param book the opening book
+     * @param fallback the strategy for positions that are not in the book
+     */
+    public BookStrategy(OpeningBook book, AIStrategy fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    public AIStrategy getFallback() {
+        return fallback;
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        int turn = lookup(state);
+        if (turn == TurnCodec.NONE) {
+            return fallback.planTurn(state, context);
+        }
+        return planBookTurn(state, turn, context);
+    }
+
+    /**
+     * Plays the turn the last {@link #lookup} found, reporting the book's depth and score for it, so a
+     * caller that has already looked the position up need not do so again.
+     * @param state the position that was looked up
+     * @param turn the turn the lookup returned
+     * @param context receives the report
+     * @return the turn as a plan
+     */
+    public TurnPlan planBookTurn(BoardState state, int turn, SearchContext context) {
+        TurnPlan plan = TurnPlan.of(state, turn);
+        context.setDepth(book.depth(lastIndex));
+        context.report(book.score(lastIndex), plan);
+        return plan;
+    }
+
+    /**
+     * Finds the book turn for a position.
+     * @param state the position
+     * @return the best book turn on the real board, or {@link TurnCodec#NONE} if the position is not in
+     *         the book or its entry is not legal here
+     */
+    public int lookup(BoardState state) {
+        if (book.size() == 0 || state.size() != book.getBoardSize()) {
+            return TurnCodec.NONE;
+        }
+        int transform = state.canonicalTransform();
+        int index = book.find(state.hash(transform));
+        if (index < 0) {
+            return TurnCodec.NONE;
+        }
+        int turn = state.geometry().symmetry().fromCanonical(state, book.turn(index), transform);
+        int count = state.generateTurns(turns);
+        for (int i = 0; i < count; i++) {
+            if (turns[i] == turn) {
+                lastIndex = index;
+                return turn;
+            }
+        }
+        return TurnCodec.NONE;
+    }
+}
@@ -0,0 +1,72 @@
+package model.ai;
+
+/**
+ * Evaluator decorator that answers repeated positions, and their rotations and reflections, from an
+ * {@link EvaluationCache}. The wrapped evaluator must score mirror images alike.
+ * Search notifications are still passed on, so an incremental evaluator underneath stays in step
+ * with the board even when its own score is not needed.
+ */
+public class CachedEvaluator implements Evaluator {
+    private final Evaluator evaluator;
+    private final EvaluationCache cache;
+    private final int[] found = new int[1];
+    private long probes;
+    private long hits;
+
+    /**
+     * @param evaluator the evaluator whose scores are cached
+     * @param cache the cache, which may be shared with other searches
+     */
+    public CachedEvaluator(Evaluator evaluator, EvaluationCache cache) {
+        this.evaluator = evaluator;
+        this.cache = cache;
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        long key = board.canonicalHash(); // The evaluation is symmetric, so mirror images share an entry
+        probes++;
+        if (cache.probe(key, found)) {
+            hits++;
+            return found[0];
+        }
+        int score = evaluator.evaluate(board);
+        cache.store(key, score);
+        return score;
+    }
+
+    /**
+     * Returns this evaluator's probe and hit counts since the last call and resets them.
+     * Unlike the cache's own totals, these cover only the searches using this evaluator.
+     * @return {probes, hits}
+     */
+    public long[] drainCounters() {
+        long[] counters = {probes, hits};
+        probes = 0;
+        hits = 0;
+        return counters;
+    }
+
+    @Override
+    public void reset(BoardState board) {
+        evaluator.reset(board);
+    }
+
+    @Override
+    public void played(BoardState board, int turn) {
+        evaluator.played(board, turn);
+    }
+
+    @Override
+    public void undone(BoardState board, int turn) {
+        evaluator.undone(board, turn);
+    }
+}
@@ -0,0 +1,147 @@
+package model.ai;
+
+/**
+ * For one player, the number of moves a worker on each cell needs to step onto a free cell of the
+ * highest level on the board, following the climbing rule (at most one level up per move) and
+ * going around domes and the opponent's workers. Once any level 3 cell is free this is the number
+ * of turns to win, assuming the board stays as it is.
+ *
+ * The field is computed by a breadth-first search backwards from the target cells, one height
+ * level at a time with bitmasks. It remembers the region that can influence its values (the cells
+ * with a finite distance and their neighbours), so {@link BoardState} only marks it stale when a
+ * build or a worker move changes something inside that region or creates a new target.
+ */
+public class ClimbField {
+    /** Distance of a cell from which no target can be reached. */
+    public static final int UNREACHABLE = Byte.MAX_VALUE;
+
+    private final int side;
+    private final byte[] distances;
+    private int targetLevel;
+    private long influence;
+    private boolean valid;
+
+    /**
+     * @param side the player whose workers would do the climbing
+     * @param cells the number of cells on the board
+     */
+    public ClimbField(int side, int cells) {
+        this.side = side;
+        this.distances = new byte[cells];
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Level the field measures the distance to.
+     */
+    public int getTargetLevel() {
+        return targetLevel;
+    }
+
+    /**
+     * Returns the distance from a cell, as computed by the last {@link #compute}.
+     * @param cell the cell a worker stands on
+     * @return the number of moves, or {@link #UNREACHABLE}
+     */
+    public int distance(int cell) {
+        return distances[cell];
+    }
+
+    /**
+     * Tells the field that a cell changed height.
+     * @param cell the cell
+     * @param height its new height
+     */
+    public void heightChanged(int cell, int height) {
+        if (valid && (((influence >>> cell) & 1) != 0 || (height >= targetLevel && height < BoardState.DOME))) {
+            valid = false;
+        }
+    }
+
+    /**
+     * Tells the field that a worker left or arrived on a cell.
+     * @param cell the cell
+     * @param height the cell's height
+     * @param owner the side of the worker
+     */
+    public void occupancyChanged(int cell, int height, int owner) {
+        if (!valid) {
+            return;
+        }
+        // Own workers are not obstacles, they only take target cells
+        boolean obstacle = owner != side && ((influence >>> cell) & 1) != 0;
+        if (obstacle || height >= targetLevel) {
+            valid = false;
+        }
+    }
+
+    /**
+     * Recomputes the field for a position.
+     */
+    public void compute(BoardState board) {
+        BoardGeometry geometry = board.geometry();
+        long[] levels = new long[BoardState.DOME + 1];
+        for (int level = 0; level <= BoardState.DOME; level++) {
+            levels[level] = board.levelMask(level);
+        }
+        long occupied = board.occupiedMask();
+        long opponents = 0;
+        for (int slot = (1 - side) * 2; slot < (1 - side) * 2 + 2; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell >= 0) {
+                opponents |= 1L << cell;
+            }
+        }
+        long free = geometry.boardMask() & ~levels[BoardState.DOME];
+        targetLevel = 0;
+        for (int level = BoardState.WIN_LEVEL; level > 0; level--) {
+            if ((levels[level] & ~occupied) != 0) {
+                targetLevel = level;
+                break;
+            }
+        }
+
+        // atLeast[h] holds the free cells of height h or more, from which a level h + 1 cell can be climbed
+        long passable = free & ~opponents;
+        long[] atLeast = new long[BoardState.WIN_LEVEL + 1];
+        long higher = 0;
+        for (int level = BoardState.WIN_LEVEL; level >= 0; level--) {
+            higher |= levels[level];
+            atLeast[level] = higher & passable;
+        }
+
+        java.util.Arrays.fill(distances, (byte) UNREACHABLE);
+        long frontier = levels[targetLevel] & ~occupied;
+        long visited = frontier;
+        int distance = 0;
+        while (frontier != 0) {
+            for (long bits = frontier; bits != 0; bits &= bits - 1) {
+                distances[Long.numberOfTrailingZeros(bits)] = (byte) distance;
+            }
+            long next = 0;
+            for (int level = 0; level <= BoardState.WIN_LEVEL; level++) {
+                long stepTargets = frontier & levels[level];
+                if (stepTargets != 0) {
+                    next |= geometry.dilate(stepTargets) & atLeast[Math.max(0, level - 1)];
+                }
+            }
+            next &= ~visited;
+            visited |= next;
+            frontier = next;
+            distance++;
+        }
+        influence = geometry.dilate(visited);
+        valid = true;
+    }
+}
@@ -0,0 +1,104 @@
+package model.ai;
+
+import model.monitoring.SantoriniMetrics;
+
+/**
+ * Anytime mode: answers within a fixed budget however complex the position.
+ * Before the wrapped strategy starts, a legal turn is chosen by looking one ply ahead, so there is always
+ * a best-so-far turn to play. The wrapped strategy then searches with a {@link SearchContext} deadline a
+ * safety margin short of the budget; searches only read the clock where they already poll for
+ * cancellation, so the deadline costs nothing per node.
+ *
+ * Every turn's latency is recorded per strategy in {@link SantoriniMetrics}, and a turn that takes longer
+ * than the budget is counted and logged as a breach rather than hidden. Ponders and cancelled searches
+ * answer no turn, so they are not recorded.
+ */
+public class DeadlineStrategy implements AIStrategy {
+    /** The smallest gap left between the search deadline and the budget, for returning the turn. */
+    private static final long MIN_MARGIN_NANOS = 2_000_000;
+
+    private final AIStrategy strategy;
+    private final long budgetNanos;
+    private final long searchNanos;
+    private final Evaluator evaluator = new BitboardEvaluator(new WeightedEvaluator());
+    private final int[] turns = new int[BoardState.MAX_TURNS];
+
+    /**
+     * @param strategy the strategy that searches within the budget
+     * @param budgetMillis the longest a turn may take, e.g. 200 for a 200 ms p99 target
+     */
+    public DeadlineStrategy(AIStrategy strategy, long budgetMillis) {
+        this.strategy = strategy;
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.searchNanos = budgetNanos - Math.max(MIN_MARGIN_NANOS, budgetNanos / 10);
+    }
+
+    public AIStrategy getStrategy() {
+        return strategy;
+    }
+
+    public long getBudgetMillis() {
+        return budgetNanos / 1_000_000;
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        long start = System.nanoTime();
+        context.setDeadline(start + searchNanos);
+        TurnPlan fallback = quickTurn(state, context);
+        TurnPlan plan = fallback;
+        if (!fallback.isNone()) {
+            plan = strategy.planTurn(state, context);
+            if (plan.isNone()) {
+                plan = fallback;
+            }
+        }
+        if (context.isPondering() || context.isCancelled()) {
+            return plan; // Nobody waited on this search, so its latency says nothing about the budget
+        }
+        long elapsed = System.nanoTime() - start;
+        String name = decisionName();
+        SantoriniMetrics.getInstance().recordDeadline(name, elapsed, budgetNanos);
+        if (elapsed > budgetNanos) {
+            System.out.println("[AI] Deadline breached: " + name + " took " + elapsed / 1_000_000 + " ms of "
+                    + budgetNanos / 1_000_000 + " ms");
+        }
+        return plan;
+    }
+
+    @Override
+    public String decisionName() {
+        return strategy.decisionName();
+    }
+
+    // A win if there is one, else the turn with the best static score that leaves the opponent no
+    // immediate climb to level 3; reported so it is the best-so-far turn until the search improves on it
+    private TurnPlan quickTurn(BoardState state, SearchContext context) {
+        BoardState board = state.copy();
+        int count = board.generateTurns(turns);
+        if (count == 0) {
+            return TurnPlan.none();
+        }
+        int best = turns[0];
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int turn = turns[i];
+            if (TurnCodec.isWin(turn)) {
+                best = turn;
+                bestScore = AlphaBetaStrategy.WIN_SCORE;
+                break;
+            }
+            board.play(turn);
+            int score = board.climbThreats(board.sideToMove()) != 0 ? -AlphaBetaStrategy.WIN_SCORE
+                    : -evaluator.evaluate(board);
+            board.undo(turn);
+            if (score > bestScore) {
+                bestScore = score;
+                best = turn;
+            }
+        }
+        TurnPlan plan = TurnPlan.of(board, best);
+        context.report(bestScore, plan);
+        return plan;
+    }
+}
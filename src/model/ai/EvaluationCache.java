@@ -0,0 +1,98 @@
+package model.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free cache of static evaluations keyed by {@link BoardState#canonicalHash()}.
+ * Each slot holds the key XOR-ed with its data next to the data itself, so a slot torn by two
+ * threads writing at once simply fails the key check and counts as a miss. Slots are always
+ * replaced, which keeps a store to two plain writes; the cache can be shared by any number of
+ * searches running in parallel, as long as they all use the same evaluation.
+ * The probe and hit totals are kept for the cache's lifetime, to help size it.
+ */
+public class EvaluationCache {
+    private static final long VALID = 1L << 32;
+    private static final int DEFAULT_SIZE_BITS = 18;
+
+    private static EvaluationCache defaultCache;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param sizeBits log2 of the number of entries; each entry takes 16 bytes
+     */
+    public EvaluationCache(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 28) {
+            throw new IllegalArgumentException("Unsupported evaluation cache size: 2^" + sizeBits);
+        }
+        this.slots = new AtomicLongArray(2 << sizeBits);
+        this.mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * The process-wide cache of the default {@link WeightedEvaluator} weights, created on first use.
+     */
+    public static synchronized EvaluationCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new EvaluationCache(DEFAULT_SIZE_BITS);
+        }
+        return defaultCache;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key the position hash
+     * @param found receives the score at index 0 on a hit
+     * @return true on a hit
+     */
+    public boolean probe(long key, int[] found) {
+        probes.increment();
+        int index = ((int) key & mask) << 1;
+        long data = slots.getOpaque(index + 1);
+        if ((data & VALID) == 0 || (slots.getOpaque(index) ^ data) != key) {
+            return false;
+        }
+        hits.increment();
+        found[0] = (int) data;
+        return true;
+    }
+
+    /**
+     * Stores an evaluation, replacing whatever the slot held.
+     * @param key the position hash
+     * @param score the evaluation for the side to move
+     */
+    public void store(long key, int score) {
+        int index = ((int) key & mask) << 1;
+        long data = (score & 0xFFFFFFFFL) | VALID;
+        slots.setOpaque(index, key ^ data);
+        slots.setOpaque(index + 1, data);
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0);
+        }
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+}
@@ -0,0 +1,42 @@
+package model.ai;
+
+/**
+ * Static evaluation used at the leaves of a search.
+ * Scores are from the point of view of the side to move: positive is good for the player about
+ * to play, and must stay well inside {@code ±(AlphaBetaStrategy.WIN_SCORE - AlphaBetaStrategy.MAX_PLY)}.
+ *
+ * A search tells the evaluator about every turn it plays and undoes, so evaluators that keep
+ * state about the position can update it incrementally instead of rescanning the board.
+ * An evaluator with such state belongs to one search and is not thread-safe.
+ */
+public interface Evaluator {
+    /**
+     * Scores a position.
+     * @param board the position, which must not be modified
+     * @return the score for the side to move
+     */
+    int evaluate(BoardState board);
+
+    /**
+     * Called when a search starts on a new root position.
+     * @param board the root position
+     */
+    default void reset(BoardState board) {
+    }
+
+    /**
+     * Called after {@link BoardState#play} was applied to the board.
+     * @param board the position after the turn
+     * @param turn the turn just played
+     */
+    default void played(BoardState board, int turn) {
+    }
+
+    /**
+     * Called after {@link BoardState#undo} was applied to the board.
+     * @param board the position before the turn, again
+     * @param turn the turn just undone
+     */
+    default void undone(BoardState board, int turn) {
+    }
+}
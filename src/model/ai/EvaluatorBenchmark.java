@@ -0,0 +1,198 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline micro-benchmark of the leaf evaluators on positions taken from self-play.
+ * Every evaluator is first checked against {@link WeightedEvaluator} on all positions, then timed
+ * over several warm-up and measured rounds. Run it on each CPU of interest; the JIT picks the
+ * instructions, so the same build is measured everywhere.
+ *
+ * Out of a search, {@link IncrementalEvaluator} rescores every worker at each position, so it is also
+ * checked and timed inside fixed-depth searches, where it only rescores the workers a turn touched.
+ * The check runs it in verify mode, which compares every leaf with a full evaluation.
+ *
+ * {@link NnueEvaluator} scores differently, so it is instead checked by playing and undoing random turns
+ * and comparing its updated accumulators with a fresh evaluator's, then timed the same two ways. It uses
+ * the network in {@link NnueEvaluator#DEFAULT_FILE}, or an untrained one of the same shape if there is none.
+ *
+ * Usage: {@code java model.ai.EvaluatorBenchmark [positions] [rounds]}
+ */
+public final class EvaluatorBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int SEARCH_POSITIONS = 200;
+    private static final int SEARCH_DEPTH = 3;
+    private static final int UNTRAINED_HIDDEN = 64;
+    private static final int UPDATE_PLIES = 6;
+
+    private EvaluatorBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int positionCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        BoardState[] positions = samplePositions(positionCount);
+        WeightedEvaluator weighted = new WeightedEvaluator();
+        Evaluator[] evaluators = {
+                weighted,
+                new BitboardEvaluator(weighted),
+                new PatternEvaluator(PatternTable.generate(weighted)),
+                new IncrementalEvaluator(weighted)
+        };
+        NnueEvaluator network = loadNetwork();
+        checkUpdates(network, copyOf(network), positions);
+
+        for (Evaluator evaluator : evaluators) {
+            for (BoardState position : positions) {
+                int expected = weighted.evaluate(position);
+                int actual = evaluator.evaluate(position);
+                if (actual != expected) {
+                    throw new IllegalStateException(evaluator.getClass().getSimpleName() + " scored " + actual
+                            + " instead of " + expected + " in\n" + position);
+                }
+            }
+        }
+        System.out.println("[Benchmark] " + positions.length + " positions, " + System.getProperty("os.arch")
+                + ", Java " + Runtime.version());
+        Evaluator[] timed = Arrays.copyOf(evaluators, evaluators.length + 1);
+        timed[evaluators.length] = network;
+        for (Evaluator evaluator : timed) {
+            long sink = 0;
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                sink += run(evaluator, positions);
+            }
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                sink += run(evaluator, positions);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("[Benchmark] %-20s %6.1f ns per leaf (checksum %d)%n",
+                    evaluator.getClass().getSimpleName(), (double) best / positions.length, sink);
+        }
+
+        BoardState[] searched = Arrays.copyOf(positions, Math.min(SEARCH_POSITIONS, positions.length));
+        search(new IncrementalEvaluator(weighted, true), searched); // Throws on the first mismatch
+        Evaluator[] searchEvaluators = {
+                new BitboardEvaluator(weighted), new IncrementalEvaluator(weighted, false), network
+        };
+        for (Evaluator evaluator : searchEvaluators) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                search(evaluator, searched);
+            }
+            long best = Long.MAX_VALUE;
+            long nodes = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                nodes = search(evaluator, searched);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("[Benchmark] %-20s %6.1f ns per node in depth %d searches%n",
+                    evaluator.getClass().getSimpleName(), (double) best / nodes, SEARCH_DEPTH);
+        }
+    }
+
+    private static NnueEvaluator loadNetwork() throws IOException {
+        Path file = Path.of(NnueEvaluator.DEFAULT_FILE);
+        if (Files.isRegularFile(file)) {
+            return NnueEvaluator.load(file);
+        }
+        System.out.println("[Benchmark] No network at " + file + ", using an untrained one");
+        return NnueEvaluator.random(5, UNTRAINED_HIDDEN, new Random(42));
+    }
+
+    // A second evaluator with the same weights, so one can be checked against the other's fresh reset
+    private static NnueEvaluator copyOf(NnueEvaluator network) throws IOException {
+        Path file = Files.createTempFile("santorini-nnue", ".bin");
+        try {
+            network.save(file);
+            return NnueEvaluator.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Plays random turns from every position and takes them back, checking after each step that the
+    // evaluator updated by played and undone agrees with one reset on the same position
+    private static void checkUpdates(Evaluator updated, Evaluator fresh, BoardState[] positions) {
+        Random random = new Random(7);
+        int[] turns = new int[BoardState.MAX_TURNS];
+        int[] line = new int[UPDATE_PLIES];
+        for (BoardState position : positions) {
+            BoardState board = position.copy();
+            updated.reset(board);
+            int plies = 0;
+            while (plies < UPDATE_PLIES) {
+                int count = board.generateTurns(turns);
+                if (count == 0) {
+                    break;
+                }
+                int turn = turns[random.nextInt(count)];
+                board.play(turn);
+                updated.played(board, turn);
+                line[plies++] = turn;
+                compare(updated, fresh, board);
+                if (TurnCodec.isWin(turn)) {
+                    break;
+                }
+            }
+            while (plies > 0) {
+                int turn = line[--plies];
+                board.undo(turn);
+                updated.undone(board, turn);
+                compare(updated, fresh, board);
+            }
+        }
+    }
+
+    private static void compare(Evaluator updated, Evaluator fresh, BoardState board) {
+        fresh.reset(board);
+        int expected = fresh.evaluate(board);
+        int actual = updated.evaluate(board);
+        if (actual != expected) {
+            throw new IllegalStateException(updated.getClass().getSimpleName() + " scored " + actual
+                    + " after updates instead of " + expected + " in\n" + board);
+        }
+    }
+
+    // Fixed-depth searches of every position, so the evaluator sees the search's played and undone calls
+    private static long search(Evaluator evaluator, BoardState[] positions) {
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(0, SEARCH_DEPTH, evaluator);
+        long nodes = 0;
+        for (BoardState position : positions) {
+            SearchContext context = new SearchContext();
+            strategy.planTurn(position.copy(), context);
+            nodes += context.getNodes();
+        }
+        return nodes;
+    }
+
+    private static long run(Evaluator evaluator, BoardState[] positions) {
+        long sum = 0;
+        for (BoardState position : positions) {
+            sum += evaluator.evaluate(position);
+        }
+        return sum;
+    }
+
+    // Positions from quick self-play games, so the height distribution is realistic
+    private static BoardState[] samplePositions(int count) {
+        Random random = new Random(42);
+        List<BoardState> positions = new ArrayList<>();
+        AIStrategy[] strategies = {new AlphaBetaStrategy(60_000, 1), new AlphaBetaStrategy(60_000, 1)};
+        while (positions.size() < count) {
+            SelfPlay.play(SelfPlay.randomStart(5, random), strategies, 4, random, (board, score) -> {
+                if (positions.size() < count) {
+                    positions.add(board.copy());
+                }
+            });
+        }
+        return positions.toArray(new BoardState[0]);
+    }
+}
@@ -0,0 +1,47 @@
+package model.ai;
+
+/**
+ * History heuristic for move ordering: turns that caused cutoffs before are tried first.
+ * Indexed by side, destination and build cell, so it generalises across positions and survives
+ * between turns; {@link #age()} halves the scores at the start of each search.
+ */
+public class HistoryTable {
+    private static final int MAX_SCORE = 1 << 24;
+
+    private final int cells;
+    private final int[][] scores;
+
+    public HistoryTable(int size) {
+        this.cells = size * size;
+        this.scores = new int[2][cells * cells];
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    public int score(int side, int turn) {
+        return scores[side][index(turn)];
+    }
+
+    /**
+     * Rewards a turn that produced a beta cutoff.
+     */
+    public void reward(int side, int turn, int depth) {
+        int index = index(turn);
+        scores[side][index] = Math.min(MAX_SCORE, scores[side][index] + depth * depth);
+    }
+
+    public void age() {
+        for (int[] sideScores : scores) {
+            for (int i = 0; i < sideScores.length; i++) {
+                sideScores[i] >>= 1;
+            }
+        }
+    }
+
+    private int index(int turn) {
+        int build = TurnCodec.isWin(turn) ? TurnCodec.to(turn) : TurnCodec.build(turn);
+        return TurnCodec.to(turn) * cells + build;
+    }
+}
@@ -0,0 +1,103 @@
+package model.ai;
+
+/**
+ * {@link WeightedEvaluator} kept up to date as the search plays and undoes turns.
+ * Every weighted feature of a worker depends only on its own cell and the neighbouring cells, so a
+ * turn can only change the scores of workers standing on or next to the cells it touched: where the
+ * worker left, where it arrived and where it built. The evaluator keeps each worker's score and, on
+ * every turn, marks just those workers as stale; a leaf evaluation rescores the stale workers and
+ * sums four numbers, whatever the size of the board.
+ *
+ * In debug mode every evaluation is also recomputed from scratch and a mismatch throws
+ * {@link IllegalStateException}. Debug mode is on when the {@code santorini.ai.verifyEvaluation}
+ * system property is true, or when requested in the constructor.
+ */
+public class IncrementalEvaluator implements Evaluator {
+    private static final boolean VERIFY_DEFAULT = Boolean.getBoolean("santorini.ai.verifyEvaluation");
+    private static final int ALL_WORKERS = (1 << BoardState.SLOTS) - 1;
+
+    private final WeightedEvaluator weights;
+    private final boolean verify;
+    private final int[] workerScores = new int[BoardState.SLOTS];
+    private int stale = ALL_WORKERS;
+    private long trackedHash;
+    private boolean tracking;
+
+    public IncrementalEvaluator(WeightedEvaluator weights) {
+        this(weights, VERIFY_DEFAULT);
+    }
+
+    /**
+     * @param weights the evaluation to maintain
+     * @param verify whether to check every evaluation against a full recomputation
+     */
+    public IncrementalEvaluator(WeightedEvaluator weights, boolean verify) {
+        this.weights = weights;
+        this.verify = verify;
+    }
+
+    public WeightedEvaluator getWeights() {
+        return weights;
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        if (!tracking || board.hash() != trackedHash) {
+            reset(board); // Called outside a search, or on a position the search did not announce
+        }
+        for (int slot = 0; stale != 0 && slot < BoardState.SLOTS; slot++) {
+            if ((stale & (1 << slot)) != 0) {
+                workerScores[slot] = weights.workerScore(board, slot);
+            }
+        }
+        stale = 0;
+        int score = workerScores[0] + workerScores[1] - workerScores[2] - workerScores[3];
+        if (board.sideToMove() != 0) {
+            score = -score;
+        }
+        if (verify) {
+            int expected = weights.evaluate(board);
+            if (score != expected) {
+                throw new IllegalStateException("Incremental evaluation " + score + " differs from full evaluation "
+                        + expected + " in\n" + board);
+            }
+        }
+        return score;
+    }
+
+    @Override
+    public void reset(BoardState board) {
+        stale = ALL_WORKERS;
+        trackedHash = board.hash();
+        tracking = true;
+    }
+
+    @Override
+    public void played(BoardState board, int turn) {
+        touched(board, turn);
+    }
+
+    @Override
+    public void undone(BoardState board, int turn) {
+        touched(board, turn);
+    }
+
+    // Marks the workers on or next to the cells the turn changed
+    private void touched(BoardState board, int turn) {
+        BoardGeometry geometry = board.geometry();
+        int from = TurnCodec.from(turn);
+        int to = TurnCodec.to(turn);
+        long region = (1L << from) | (1L << to) | geometry.neighbourMask(from) | geometry.neighbourMask(to);
+        if (!TurnCodec.isWin(turn)) {
+            int build = TurnCodec.build(turn);
+            region |= (1L << build) | geometry.neighbourMask(build);
+        }
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell >= 0 && (region & (1L << cell)) != 0) {
+                stale |= 1 << slot;
+            }
+        }
+        trackedHash = board.hash();
+    }
+}
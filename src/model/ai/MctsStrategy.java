@@ -0,0 +1,276 @@
+package model.ai;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Monte Carlo tree search (UCT) with random playouts that always take an immediate win.
+ * The tree is kept between calls: when the next search starts from a position already in
+ * the tree, usually two plies below the old root, that subtree is promoted to be the new root
+ * and its statistics are reused.
+ */
+public class MctsStrategy implements AIStrategy {
+    private static final double EXPLORATION = 1.4;
+    private static final int MAX_PLAYOUT_PLIES = 200;
+    private static final int REPORT_INTERVAL = 4096;
+    private static final int REUSE_DEPTH = 2;
+
+    private long timeLimitMillis;
+    private final int maxNodes;
+    private final SplittableRandom random;
+    private final int[] playoutTurns = new int[BoardState.MAX_TURNS];
+    private final int[] playoutStack = new int[MAX_PLAYOUT_PLIES];
+    private final int[] pathStack = new int[MAX_PLAYOUT_PLIES];
+    private Node root;
+    private int nodeCount;
+
+    public MctsStrategy() {
+        this(1000, 2_000_000);
+    }
+
+    /**
+     * @param timeLimitMillis thinking time per turn
+     * @param maxNodes the tree stops growing once it holds this many nodes
+     */
+    public MctsStrategy(long timeLimitMillis, int maxNodes) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxNodes = maxNodes;
+        this.random = new SplittableRandom();
+    }
+
+    /**
+     * Changes the thinking time for the following searches.
+     * @param timeLimitMillis thinking time per turn
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public long getTimeLimit() {
+        return timeLimitMillis;
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        BoardState board = state.copy();
+        root = reusableRoot(board.hash());
+        if (root == null) {
+            root = new Node(TurnCodec.NONE, null, board.hash(), 1 - board.sideToMove());
+            nodeCount = 1;
+        } else {
+            root.parent = null;
+            nodeCount = countNodes(root);
+        }
+        root.initialise(board);
+        int count = board.generateTurns(playoutTurns);
+        if (count == 0) {
+            return TurnPlan.none();
+        }
+        for (int i = 0; i < count; i++) {
+            if (TurnCodec.isWin(playoutTurns[i])) {
+                return TurnPlan.of(board, playoutTurns[i]);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + timeLimitMillis;
+        int maxDepth = 0;
+        long iterations = 0;
+        while (!context.isCancelled()) {
+            if ((iterations & 63) == 0 && (context.shouldStop() || System.currentTimeMillis() >= deadline)) {
+                break;
+            }
+            maxDepth = Math.max(maxDepth, iterate(board, context));
+            iterations++;
+            if (iterations % REPORT_INTERVAL == 0) {
+                context.setDepth(maxDepth);
+                Node best = mostVisited(root);
+                context.report(score(best), TurnPlan.of(board, best.turn));
+            }
+        }
+        context.setDepth(maxDepth);
+        Node best = mostVisited(root);
+        if (best == null) {
+            return TurnPlan.of(board, playoutTurns[0]);
+        }
+        context.report(score(best), TurnPlan.of(board, best.turn));
+        return TurnPlan.of(board, best.turn);
+    }
+
+    /**
+     * Runs one selection, expansion, playout and backup.
+     * @return the depth of the tree path that was followed
+     */
+    private int iterate(BoardState board, SearchContext context) {
+        Node node = root;
+        int depth = 0;
+        while (node.winner < 0 && node.untriedCount == 0 && !node.children.isEmpty()
+                && depth < pathStack.length) {
+            node = selectChild(node);
+            board.play(node.turn);
+            pathStack[depth++] = node.turn;
+            context.countNode();
+        }
+        if (node.winner < 0 && node.untriedCount > 0 && nodeCount < maxNodes && depth < pathStack.length) {
+            int pick = random.nextInt(node.untriedCount);
+            int turn = node.untried[pick];
+            node.untried[pick] = node.untried[--node.untriedCount];
+            board.play(turn);
+            pathStack[depth++] = turn;
+            Node child = new Node(turn, node, board.hash(), 1 - board.sideToMove());
+            node.children.add(child);
+            nodeCount++;
+            context.countNode();
+            child.initialise(board);
+            node = child;
+        }
+        int winner = node.winner >= 0 ? node.winner : playout(board);
+        for (int i = depth - 1; i >= 0; i--) {
+            board.undo(pathStack[i]);
+        }
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            if (winner == n.mover) {
+                n.wins++;
+            }
+        }
+        return depth;
+    }
+
+    private int playout(BoardState board) {
+        int plies = 0;
+        int winner = -1;
+        while (plies < MAX_PLAYOUT_PLIES) {
+            int count = board.generateTurns(playoutTurns);
+            if (count == 0) {
+                winner = 1 - board.sideToMove();
+                break;
+            }
+            int chosen = playoutTurns[random.nextInt(count)];
+            for (int i = 0; i < count; i++) {
+                if (TurnCodec.isWin(playoutTurns[i])) {
+                    chosen = playoutTurns[i];
+                    break;
+                }
+            }
+            if (TurnCodec.isWin(chosen)) {
+                winner = board.sideToMove();
+                break;
+            }
+            board.play(chosen);
+            playoutStack[plies++] = chosen;
+        }
+        for (int i = plies - 1; i >= 0; i--) {
+            board.undo(playoutStack[i]);
+        }
+        return winner;
+    }
+
+    private Node selectChild(Node node) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : node.children) {
+            double value = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private Node reusableRoot(long hash) {
+        if (root == null) {
+            return null;
+        }
+        ArrayDeque<Node> frontier = new ArrayDeque<>();
+        frontier.add(root);
+        for (int depth = 0; depth <= REUSE_DEPTH && !frontier.isEmpty(); depth++) {
+            ArrayDeque<Node> next = new ArrayDeque<>();
+            for (Node node : frontier) {
+                if (node.hash == hash) {
+                    return node;
+                }
+                next.addAll(node.children);
+            }
+            frontier = next;
+        }
+        return null;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (Node child : node.children) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static Node mostVisited(Node node) {
+        Node best = null;
+        for (Node child : node.children) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Win rate of the chosen child mapped onto the alpha-beta score range
+    private static int score(Node node) {
+        if (node == null || node.visits == 0) {
+            return 0;
+        }
+        return (int) Math.round((2.0 * node.wins / node.visits - 1) * 1000);
+    }
+
+    public int getTreeSize() {
+        return nodeCount;
+    }
+
+    public int getRootVisits() {
+        return root == null ? 0 : root.visits;
+    }
+
+    private static class Node {
+        private final int turn;
+        private final long hash;
+        private final int mover;
+        private Node parent;
+        private final List<Node> children = new ArrayList<>();
+        private int[] untried;
+        private int untriedCount;
+        private int visits;
+        private double wins;
+        private int winner = -1;
+
+        private Node(int turn, Node parent, long hash, int mover) {
+            this.turn = turn;
+            this.parent = parent;
+            this.hash = hash;
+            this.mover = mover;
+        }
+
+        /**
+         * Generates the untried turns the first time the node is reached.
+         */
+        private void initialise(BoardState board) {
+            if (untried != null) {
+                return;
+            }
+            if (TurnCodec.isWin(turn)) {
+                winner = mover;
+                untried = new int[0];
+                return;
+            }
+            int[] buffer = new int[BoardState.MAX_TURNS];
+            untriedCount = board.generateTurns(buffer);
+            untried = java.util.Arrays.copyOf(buffer, untriedCount);
+            if (untriedCount == 0) {
+                winner = mover; // The side to move is stuck
+            }
+        }
+    }
+}
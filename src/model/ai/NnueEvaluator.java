@@ -0,0 +1,322 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Small neural network evaluation in the NNUE style, with int16 quantized weights.
+ *
+ * The input layer is sparse: one feature per (cell, height) pair and one per (cell, own worker)
+ * and (cell, opposing worker) pair. Its output, the accumulator, is kept for both players'
+ * points of view and updated on every turn the search plays or undoes, which touches at most
+ * three features: the worker leaving a cell, arriving on another, and the block built.
+ * An update therefore costs a few additions of one weight column, and evaluating a position is
+ * one clipped-ReLU layer from the two accumulators (side to move first) to a single output.
+ *
+ * The loops are plain scalar code over short arrays, written so the JIT can vectorise them;
+ * the incubating Vector API is deliberately not used, since it needs extra JVM flags.
+ * The accumulators are int16 too, so networks whose weights could overflow them are rejected.
+ *
+ * Network file layout, little-endian: int magic {@code "SNN1"}, int board size, int hidden size,
+ * then int16 input weights {@code [inputs][hidden]}, int16 input biases {@code [hidden]},
+ * int16 output weights {@code [2 * hidden]} and an int32 output bias, where
+ * {@code inputs = 7 * size * size}.
+ */
+public class NnueEvaluator implements Evaluator {
+    public static final int MAGIC = 0x314E4E53;
+    public static final String DEFAULT_FILE = System.getProperty("santorini.network", "santorini-nnue.bin");
+    /** Heights a cell can have, 0 to 3 plus a dome. */
+    public static final int HEIGHT_STATES = BoardState.DOME + 1;
+    /** Scale of the clipped accumulator values: 1.0 is stored as QA. */
+    public static final int QA = 255;
+    /** Scale of the output weights: 1.0 is stored as QB. */
+    public static final int QB = 64;
+    /** Centi-level units one unit of network output is worth. */
+    public static final int OUTPUT_SCALE = 400;
+
+    private static final int MAX_SCORE = AlphaBetaStrategy.WIN_SCORE - AlphaBetaStrategy.MAX_PLY - 1;
+
+    private final int size;
+    private final int cells;
+    private final int hidden;
+    private final short[] inputWeights;
+    private final short[] inputBias;
+    private final short[] outputWeights;
+    private final int outputBias;
+    private final short[][] accumulators;
+    private long accumulatedHash;
+    private boolean valid;
+
+    /**
+     * @param size the board size the network was trained for
+     * @param hidden the accumulator width
+     * @param inputWeights {@code [inputs][hidden]} weights, one contiguous column per input feature
+     * @param inputBias accumulator biases
+     * @param outputWeights weights for the side to move's accumulator followed by the opponent's
+     * @param outputBias bias of the output
+     */
+    public NnueEvaluator(int size, int hidden, short[] inputWeights, short[] inputBias,
+                         short[] outputWeights, int outputBias) {
+        this.size = size;
+        this.cells = size * size;
+        this.hidden = hidden;
+        if (inputWeights.length != inputs(size) * hidden || inputBias.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Network layer sizes do not match a " + size + "x" + size
+                    + " board with " + hidden + " hidden units");
+        }
+        this.inputWeights = inputWeights;
+        this.inputBias = inputBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.accumulators = new short[2][hidden];
+        checkAccumulatorRange();
+    }
+
+    /**
+     * The accumulators are int16 like the weights, so the quantised network must keep every reachable
+     * accumulator value within that range. A position activates one height feature per cell and two
+     * worker features per player, so each unit is bounded by its bias plus the largest such weights.
+     * @throws IllegalArgumentException if some position could overflow an accumulator
+     */
+    private void checkAccumulatorRange() {
+        int heights = cells * HEIGHT_STATES;
+        for (int i = 0; i < hidden; i++) {
+            long bound = Math.abs(inputBias[i]);
+            for (int cell = 0; cell < cells; cell++) {
+                int largest = 0;
+                for (int height = 0; height < HEIGHT_STATES; height++) {
+                    largest = Math.max(largest, Math.abs(inputWeights[heightFeature(cell, height) * hidden + i]));
+                }
+                bound += largest;
+            }
+            for (int owner = 0; owner < 2; owner++) {
+                int first = 0;
+                int second = 0;
+                for (int cell = 0; cell < cells; cell++) {
+                    int weight = Math.abs(inputWeights[(heights + owner * cells + cell) * hidden + i]);
+                    if (weight > first) {
+                        second = first;
+                        first = weight;
+                    } else if (weight > second) {
+                        second = weight;
+                    }
+                }
+                bound += first + second;
+            }
+            if (bound > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Hidden unit " + i + " can reach " + bound
+                        + ", outside the int16 accumulator range");
+            }
+        }
+    }
+
+    /**
+     * Number of input features for a board size.
+     */
+    public static int inputs(int size) {
+        return size * size * (HEIGHT_STATES + 2);
+    }
+
+    /**
+     * Index of the feature for a cell's height, the same from both points of view.
+     */
+    public static int heightFeature(int cell, int height) {
+        return cell * HEIGHT_STATES + height;
+    }
+
+    /**
+     * Index of the feature for a worker, as seen by one player.
+     * @param perspective the side whose point of view is used
+     * @param slot the worker slot
+     * @param cell the cell the worker stands on
+     */
+    public static int workerFeature(int size, int perspective, int slot, int cell) {
+        int cells = size * size;
+        int owner = BoardState.sideOf(slot) == perspective ? 0 : cells;
+        return cells * HEIGHT_STATES + owner + cell;
+    }
+
+    /**
+     * Reads a network written by {@link #save}.
+     * @param file the network file
+     * @return the evaluator
+     * @throws IOException if the file cannot be read or is not a network file
+     */
+    public static NnueEvaluator load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int size = buffer.getInt();
+        int hidden = buffer.getInt();
+        if (size < 2 || size > BoardGeometry.MAX_SIZE || hidden <= 0) {
+            throw new IOException("Bad network header in " + file);
+        }
+        long expected = 2L * (inputs(size) * (long) hidden + 3L * hidden) + 4;
+        if (buffer.remaining() != expected) {
+            throw new IOException("Network file " + file + " has " + buffer.remaining()
+                    + " bytes of weights, expected " + expected);
+        }
+        short[] inputWeights = new short[inputs(size) * hidden];
+        short[] inputBias = new short[hidden];
+        short[] outputWeights = new short[2 * hidden];
+        buffer.asShortBuffer().get(inputWeights).get(inputBias).get(outputWeights);
+        buffer.position(buffer.position() + 2 * (inputWeights.length + inputBias.length + outputWeights.length));
+        try {
+            return new NnueEvaluator(size, hidden, inputWeights, inputBias, outputWeights, buffer.getInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad network in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates an untrained network with small random weights, e.g. to benchmark the evaluator before a
+     * network has been trained.
+     * @param size the board size
+     * @param hidden the accumulator width
+     * @param random the source of the weights
+     * @return the evaluator
+     */
+    public static NnueEvaluator random(int size, int hidden, Random random) {
+        short[] inputWeights = new short[inputs(size) * hidden];
+        short[] inputBias = new short[hidden];
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) (random.nextInt(65) - 32);
+        }
+        for (int i = 0; i < hidden; i++) {
+            inputBias[i] = (short) random.nextInt(QA);
+            outputWeights[i] = (short) (random.nextInt(2 * QB + 1) - QB);
+            outputWeights[hidden + i] = (short) (random.nextInt(2 * QB + 1) - QB);
+        }
+        return new NnueEvaluator(size, hidden, inputWeights, inputBias, outputWeights, 0);
+    }
+
+    /**
+     * Writes the network in the format {@link #load} reads.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 2 * (inputWeights.length + inputBias.length
+                + outputWeights.length) + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(size).putInt(hidden);
+        buffer.asShortBuffer().put(inputWeights).put(inputBias).put(outputWeights);
+        buffer.position(buffer.position() + 2 * (inputWeights.length + inputBias.length + outputWeights.length));
+        buffer.putInt(outputBias);
+        Files.write(file, buffer.array());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        if (!valid || board.hash() != accumulatedHash) {
+            reset(board); // Called outside a search, or on a position the search did not announce
+        }
+        int side = board.sideToMove();
+        int sum = outputBias;
+        sum += clippedDot(accumulators[side], 0);
+        sum += clippedDot(accumulators[1 - side], hidden);
+        long score = (long) sum * OUTPUT_SCALE / ((long) QA * QB);
+        return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    private int clippedDot(short[] accumulator, int offset) {
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            int value = Math.max(0, Math.min(QA, accumulator[i]));
+            sum += value * outputWeights[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Recomputes both accumulators from scratch.
+     */
+    @Override
+    public void reset(BoardState board) {
+        if (board.size() != size) {
+            throw new IllegalArgumentException("Network is for a " + size + "x" + size + " board, not "
+                    + board.size() + "x" + board.size());
+        }
+        for (int perspective = 0; perspective < 2; perspective++) {
+            short[] accumulator = accumulators[perspective];
+            System.arraycopy(inputBias, 0, accumulator, 0, hidden);
+            for (int cell = 0; cell < cells; cell++) {
+                add(accumulator, heightFeature(cell, board.height(cell)));
+            }
+            for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+                int cell = board.workerCell(slot);
+                if (cell >= 0) {
+                    add(accumulator, workerFeature(size, perspective, slot, cell));
+                }
+            }
+        }
+        accumulatedHash = board.hash();
+        valid = true;
+    }
+
+    @Override
+    public void played(BoardState board, int turn) {
+        int slot = TurnCodec.slot(turn);
+        for (int perspective = 0; perspective < 2; perspective++) {
+            move(accumulators[perspective], workerFeature(size, perspective, slot, TurnCodec.from(turn)),
+                    workerFeature(size, perspective, slot, TurnCodec.to(turn)));
+        }
+        if (!TurnCodec.isWin(turn)) {
+            int build = TurnCodec.build(turn);
+            int height = board.height(build);
+            moveShared(heightFeature(build, height - 1), heightFeature(build, height));
+        }
+        accumulatedHash = board.hash();
+    }
+
+    @Override
+    public void undone(BoardState board, int turn) {
+        int slot = TurnCodec.slot(turn);
+        for (int perspective = 0; perspective < 2; perspective++) {
+            move(accumulators[perspective], workerFeature(size, perspective, slot, TurnCodec.to(turn)),
+                    workerFeature(size, perspective, slot, TurnCodec.from(turn)));
+        }
+        if (!TurnCodec.isWin(turn)) {
+            int build = TurnCodec.build(turn);
+            int height = board.height(build);
+            moveShared(heightFeature(build, height + 1), heightFeature(build, height));
+        }
+        accumulatedHash = board.hash();
+    }
+
+    // Height features are the same from both points of view
+    private void moveShared(int removed, int added) {
+        move(accumulators[0], removed, added);
+        move(accumulators[1], removed, added);
+    }
+
+    private void add(short[] accumulator, int feature) {
+        int base = feature * hidden;
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] += inputWeights[base + i];
+        }
+    }
+
+    private void move(short[] accumulator, int removed, int added) {
+        int removedBase = removed * hidden;
+        int addedBase = added * hidden;
+        for (int i = 0; i < hidden; i++) {
+            int value = accumulator[i] + inputWeights[addedBase + i] - inputWeights[removedBase + i];
+            accumulator[i] = (short) value; // In range, see checkAccumulatorRange
+        }
+    }
+}
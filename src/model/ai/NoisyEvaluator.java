@@ -0,0 +1,61 @@
+package model.ai;
+
+/**
+ * Evaluator decorator that adds a fixed pseudo-random offset to every score, to weaken the computer
+ * player by a chosen amount. The offset is a hash of the position's canonical form and a seed, not a
+ * random draw, so a position and its mirror images always get the same score and a search with a node
+ * budget plays the same turn every time.
+ */
+public class NoisyEvaluator implements Evaluator {
+    private final Evaluator evaluator;
+    private final int amplitude;
+    private final long seed;
+
+    /**
+     * @param evaluator the evaluator whose scores are perturbed
+     * @param amplitude the largest offset either way, in evaluation units
+     * @param seed mixed into the hash, so different seeds misjudge different positions
+     */
+    public NoisyEvaluator(Evaluator evaluator, int amplitude, long seed) {
+        this.evaluator = evaluator;
+        this.amplitude = amplitude;
+        this.seed = seed;
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public int getAmplitude() {
+        return amplitude;
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        int score = evaluator.evaluate(board);
+        if (amplitude == 0) {
+            return score;
+        }
+        // SplitMix64 finaliser, then reduce into [-amplitude, amplitude]
+        long z = board.canonicalHash() + seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return score + (int) Math.floorMod(z, 2L * amplitude + 1) - amplitude;
+    }
+
+    @Override
+    public void reset(BoardState board) {
+        evaluator.reset(board);
+    }
+
+    @Override
+    public void played(BoardState board, int turn) {
+        evaluator.played(board, turn);
+    }
+
+    @Override
+    public void undone(BoardState board, int turn) {
+        evaluator.undone(board, turn);
+    }
+}
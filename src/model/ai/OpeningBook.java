@@ -0,0 +1,310 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed best turns for the opening, looked up by the canonical hash of the position
+ * (see {@link Symmetry}), so one entry serves all eight rotations and reflections of a position and
+ * either order of a player's workers.
+ *
+ * The book is generated offline with {@link #main}: every way of placing the four workers, and
+ * optionally the positions a few plies further on, is reduced to its canonical form and searched to a
+ * fixed depth in parallel. Entries are sorted by key and memory-mapped when the game starts, so a
+ * lookup is a binary search over the file. A key may have several entries, best first; turns are
+ * stored in the canonical frame and mapped back by the caller.
+ *
+ * File layout, little-endian: int magic {@code "SBOK"}, int version, int board size, int entry count,
+ * then per entry a long key, an int turn, a short score and a short search depth.
+ */
+public final class OpeningBook {
+    public static final int MAGIC = 0x4B4F4253;
+    public static final int VERSION = 1;
+    public static final int ENTRY_BYTES = 16;
+    /** Path of the book file, overridable with the {@code santorini.book} system property. */
+    public static final String DEFAULT_FILE = System.getProperty("santorini.book", "santorini-book.bin");
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static OpeningBook defaultBook;
+
+    private final int size;
+    private final ByteBuffer entries;
+    private final int count;
+
+    private OpeningBook(int size, ByteBuffer entries) {
+        this.size = size;
+        this.entries = entries;
+        this.count = entries.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * A book with no entries, used when no book file is available.
+     * @param size the board size
+     */
+    public static OpeningBook empty(int size) {
+        return new OpeningBook(size, ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Returns the book in {@link #DEFAULT_FILE}, mapping it on first use, or an empty book if the file
+     * is missing or unreadable.
+     */
+    public static synchronized OpeningBook getDefault() {
+        if (defaultBook == null) {
+            Path file = Path.of(DEFAULT_FILE);
+            defaultBook = empty(model.Board.DEFAULT_SIZE);
+            if (Files.isRegularFile(file)) {
+                try {
+                    defaultBook = map(file);
+                    System.out.println("[AI] Opening book " + file + ": " + defaultBook.size() + " entries");
+                } catch (IOException e) {
+                    System.out.println("[AI] Could not read opening book " + file + " (" + e.getMessage() + ")");
+                }
+            } else {
+                System.out.println("[AI] No opening book at " + file + ", openings will be searched");
+            }
+        }
+        return defaultBook;
+    }
+
+    /**
+     * Memory-maps a book file written by {@link #save}.
+     * @param file the book file
+     * @return the book
+     * @throws IOException if the file cannot be mapped or is not a complete book
+     */
+    public static OpeningBook map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("not an opening book");
+            }
+            int size = header.getInt();
+            int count = header.getInt();
+            long expected = HEADER_BYTES + (long) count * ENTRY_BYTES;
+            if (channel.size() != expected) {
+                throw new IOException("expected " + expected + " bytes, found " + channel.size());
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) count * ENTRY_BYTES);
+            return new OpeningBook(size, mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Finds the first entry for a canonical key.
+     * @param key a canonical hash from {@link BoardState#canonicalHash}
+     * @return the entry index, or -1 if the key is not in the book
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long probe = key(mid);
+            if (probe < key) {
+                low = mid + 1;
+            } else if (probe > key || (mid > 0 && key(mid - 1) == key)) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long key(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    /**
+     * The stored turn, in the canonical frame of the entry's position.
+     */
+    public int turn(int index) {
+        return entries.getInt(index * ENTRY_BYTES + 8);
+    }
+
+    public int score(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 12);
+    }
+
+    public int depth(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 14);
+    }
+
+    /**
+     * Writes entries in the format {@link #map} reads.
+     * @param file the file to write
+     * @param size the board size
+     * @param entries the entries; sorted in place by key, then by score from best to worst
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Path file, int size, List<Entry> entries) throws IOException {
+        entries.sort(Comparator.comparingLong(Entry::getKey).thenComparing(Entry::getScore, Comparator.reverseOrder()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(entries.size());
+            for (Entry entry : entries) {
+                buffer.putLong(entry.key).putInt(entry.turn).putShort((short) entry.score).putShort((short) entry.depth);
+            }
+            channel.write(buffer.flip());
+        }
+    }
+
+    /**
+     * One searched position, as written by the generator.
+     */
+    public static class Entry {
+        private final long key;
+        private final int turn;
+        private final int score;
+        private final int depth;
+
+        public Entry(long key, int turn, int score, int depth) {
+            this.key = key;
+            this.turn = turn;
+            this.score = score;
+            this.depth = depth;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public int getTurn() {
+            return turn;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * Generates a book and writes it.
+     * Usage: {@code java model.ai.OpeningBook [output file] [depth] [plies] [position limit]}
+     * where plies is how many turns past the placement to expand every legal turn, and the limit
+     * caps the number of positions searched at each ply.
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int limit = args.length > 3 ? Integer.parseInt(args[3]) : Integer.MAX_VALUE;
+        int size = model.Board.DEFAULT_SIZE;
+
+        long start = System.currentTimeMillis();
+        List<BoardState> level = canonicalPlacements(size);
+        List<Entry> entries = new ArrayList<>();
+        for (int ply = 0; ; ply++) {
+            if (level.size() > limit) {
+                level = level.subList(0, limit);
+            }
+            System.out.println("[Book] Ply " + ply + ": searching " + level.size() + " positions to depth " + depth);
+            entries.addAll(search(level, depth));
+            if (ply == plies) {
+                break;
+            }
+            level = expand(level);
+        }
+        save(output, size, entries);
+        System.out.println("[Book] " + entries.size() + " entries written to " + output + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Every placement of the four workers with the first player to move, one per symmetry class.
+     */
+    static List<BoardState> canonicalPlacements(int size) {
+        BoardGeometry geometry = BoardGeometry.of(size);
+        Symmetry symmetry = geometry.symmetry();
+        int cells = geometry.cells();
+        Map<Long, BoardState> unique = new LinkedHashMap<>();
+        for (int a = 0; a < cells; a++) {
+            for (int b = a + 1; b < cells; b++) {
+                for (int c = 0; c < cells; c++) {
+                    for (int d = c + 1; d < cells; d++) {
+                        if (c == a || c == b || d == a || d == b) continue;
+                        BoardState board = new BoardState(size);
+                        board.placeWorker(0, a);
+                        board.placeWorker(1, b);
+                        board.placeWorker(2, c);
+                        board.placeWorker(3, d);
+                        int transform = board.canonicalTransform();
+                        unique.putIfAbsent(board.hash(transform), symmetry.apply(board, transform));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    // The canonical positions one legal turn on from the given ones, without finished games
+    private static List<BoardState> expand(List<BoardState> level) {
+        Map<Long, BoardState> unique = new LinkedHashMap<>();
+        int[] turns = new int[BoardState.MAX_TURNS];
+        for (BoardState board : level) {
+            int count = board.generateTurns(turns);
+            for (int i = 0; i < count; i++) {
+                if (TurnCodec.isWin(turns[i])) continue;
+                BoardState next = board.copy();
+                next.play(turns[i]);
+                if (!next.hasLegalTurn()) continue;
+                Symmetry symmetry = next.geometry().symmetry();
+                int transform = next.canonicalTransform();
+                unique.putIfAbsent(next.hash(transform), symmetry.apply(next, transform));
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    // Searches canonical positions in parallel, one strategy per thread so tables are reused
+    private static List<Entry> search(List<BoardState> positions, int depth) {
+        ThreadLocal<AlphaBetaStrategy> strategies =
+                ThreadLocal.withInitial(() -> new AlphaBetaStrategy(Long.MAX_VALUE / 4, depth));
+        AtomicInteger done = new AtomicInteger();
+        Entry[] entries = new Entry[positions.size()];
+        IntStream.range(0, positions.size()).parallel().forEach(i -> {
+            BoardState board = positions.get(i);
+            int[] score = {AlphaBetaStrategy.WIN_SCORE};
+            TurnPlan plan = strategies.get().planTurn(board, new SearchContext(info -> score[0] = info.getScore()));
+            int turn = plan.encode(board);
+            if (turn != TurnCodec.NONE) {
+                entries[i] = new Entry(board.hash(), turn, score[0], depth);
+            }
+            int finished = done.incrementAndGet();
+            if (finished % 1000 == 0) {
+                System.out.println("[Book] " + finished + " of " + positions.size());
+            }
+        });
+        return new ArrayList<>(Arrays.stream(entries).filter(java.util.Objects::nonNull).toList());
+    }
+}
@@ -0,0 +1,36 @@
+package model.ai;
+
+/**
+ * {@link WeightedEvaluator} answered from a {@link PatternTable}: one table read per worker,
+ * plus the perimeter term the table leaves out.
+ */
+public class PatternEvaluator implements Evaluator {
+    private final PatternTable table;
+    private final int perimeter;
+
+    /**
+     * Uses the default table for the default weights.
+     */
+    public PatternEvaluator() {
+        this(PatternTable.getDefault());
+    }
+
+    public PatternEvaluator(PatternTable table) {
+        this.table = table;
+        this.perimeter = table.getWeights()[WeightedEvaluator.PERIMETER];
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        long perimeterMask = board.geometry().perimeterMask();
+        int score = 0;
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell < 0) continue;
+            int workerScore = PatternTable.score(table.entry(PatternTable.index(board, cell)))
+                    + (((perimeterMask >>> cell) & 1) != 0 ? perimeter : 0);
+            score += BoardState.sideOf(slot) == 0 ? workerScore : -workerScore;
+        }
+        return board.sideToMove() == 0 ? score : -score;
+    }
+}
@@ -0,0 +1,242 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lookup table from a worker's 3x3 neighbourhood to its {@link WeightedEvaluator} score and threat flags.
+ *
+ * A pattern is the height of the worker's cell (0 to 3) and the state of each of the eight cells
+ * around it, in {@link BoardGeometry#ring} order: free at height 0 to 3, domed, or blocked (another
+ * worker, or off the board). That gives 4 * 6^8 patterns, each stored as one short holding the score
+ * shifted left by two and the {@link #THREAT} and {@link #TRAPPED} flags in the low bits. The perimeter
+ * term is not part of the pattern and is added by the caller.
+ *
+ * The table is generated offline with {@link #main} and memory-mapped when the game starts; if the
+ * file is missing or was built for other weights, it is generated in memory instead.
+ *
+ * File layout, little-endian: int magic {@code "SPAT"}, int version, the six weights as ints, then
+ * the entries as shorts.
+ */
+public final class PatternTable {
+    public static final int MAGIC = 0x54415053;
+    public static final int VERSION = 1;
+    /** States of a ring cell: free heights 0 to 3, then these two. */
+    public static final int DOMED = 4;
+    public static final int BLOCKED = 5;
+    public static final int STATES = 6;
+    public static final int RING_PATTERNS = 1_679_616; // 6^8
+    public static final int ENTRIES = (BoardState.WIN_LEVEL + 1) * RING_PATTERNS;
+    /** Flag: the worker stands on level 2 next to a free level 3 cell. */
+    public static final int THREAT = 1;
+    /** Flag: the worker cannot move. */
+    public static final int TRAPPED = 2;
+    /** Path of the table file, overridable with the {@code santorini.patterns} system property. */
+    public static final String DEFAULT_FILE = System.getProperty("santorini.patterns", "santorini-patterns.bin");
+
+    private static final int HEADER_BYTES = 8 * Integer.BYTES;
+    private static PatternTable defaultTable;
+
+    private final int[] weights;
+    private final ShortBuffer entries;
+
+    private PatternTable(int[] weights, ShortBuffer entries) {
+        this.weights = weights;
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the table for the default weights, loading or generating it on first use.
+     */
+    public static synchronized PatternTable getDefault() {
+        if (defaultTable == null) {
+            defaultTable = open(Path.of(DEFAULT_FILE), new WeightedEvaluator());
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Memory-maps a table file, or generates the table in memory if the file cannot be used.
+     * @param file the table file
+     * @param weights the evaluation the table must match
+     * @return the table
+     */
+    public static PatternTable open(Path file, WeightedEvaluator weights) {
+        if (Files.isRegularFile(file)) {
+            try {
+                PatternTable table = map(file);
+                if (Arrays.equals(table.weights, weights.getWeights())) {
+                    return table;
+                }
+                System.out.println("[AI] Pattern table " + file + " was built for other weights, generating it in memory");
+            } catch (IOException e) {
+                System.out.println("[AI] Could not read pattern table " + file + " (" + e.getMessage()
+                        + "), generating it in memory");
+            }
+        }
+        return generate(weights);
+    }
+
+    /**
+     * Memory-maps a table file written by {@link #save}.
+     * @param file the table file
+     * @return the table
+     * @throws IOException if the file cannot be mapped or is not a complete table
+     */
+    public static PatternTable map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expected = HEADER_BYTES + 2L * ENTRIES;
+            if (channel.size() != expected) {
+                throw new IOException("expected " + expected + " bytes, found " + channel.size());
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("not a pattern table");
+            }
+            int[] weights = new int[WeightedEvaluator.FEATURES];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = mapped.getInt();
+            }
+            ShortBuffer entries = mapped.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            return new PatternTable(weights, entries);
+        }
+    }
+
+    /**
+     * Computes every entry of the table.
+     * @param evaluator the weights to score patterns with
+     * @return the table, held in memory
+     */
+    public static PatternTable generate(WeightedEvaluator evaluator) {
+        int[] weights = evaluator.getWeights();
+        short[] entries = new short[ENTRIES];
+        int[] ring = new int[8];
+        for (int centre = 0; centre <= BoardState.WIN_LEVEL; centre++) {
+            for (int pattern = 0; pattern < RING_PATTERNS; pattern++) {
+                int rest = pattern;
+                for (int i = 0; i < 8; i++) {
+                    ring[i] = rest % STATES;
+                    rest /= STATES;
+                }
+                entries[centre * RING_PATTERNS + pattern] = entry(weights, centre, ring);
+            }
+        }
+        return new PatternTable(weights, ShortBuffer.wrap(entries));
+    }
+
+    // Same features as WeightedEvaluator.workerScore, minus the perimeter term
+    private static short entry(int[] weights, int centre, int[] ring) {
+        int mobility = 0;
+        int climbs = 0;
+        int threats = 0;
+        int domes = 0;
+        for (int state : ring) {
+            if (state == DOMED) {
+                domes++;
+            } else if (state < DOMED && state <= centre + 1) {
+                mobility++;
+                if (state == centre + 1) {
+                    climbs++;
+                    if (state == BoardState.WIN_LEVEL) {
+                        threats++;
+                    }
+                }
+            }
+        }
+        int score = weights[WeightedEvaluator.HEIGHT] * centre
+                + weights[WeightedEvaluator.MOBILITY] * mobility
+                + weights[WeightedEvaluator.CLIMB] * climbs
+                + weights[WeightedEvaluator.THREAT] * threats
+                + weights[WeightedEvaluator.DOME] * domes;
+        if (score < Short.MIN_VALUE >> 2 || score > Short.MAX_VALUE >> 2) {
+            throw new IllegalArgumentException("Weights too large for the pattern table: score " + score);
+        }
+        int flags = (threats > 0 ? THREAT : 0) | (mobility == 0 ? TRAPPED : 0);
+        return (short) (score << 2 | flags);
+    }
+
+    /**
+     * Writes the table in the format {@link #map} reads.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION);
+            for (int weight : weights) {
+                header.putInt(weight);
+            }
+            channel.write(header.flip());
+            ByteBuffer body = ByteBuffer.allocate(2 * ENTRIES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < ENTRIES; i++) {
+                body.putShort(entries.get(i));
+            }
+            channel.write(body.flip());
+        }
+    }
+
+    /**
+     * Encodes the neighbourhood of a worker.
+     * @param board the position
+     * @param cell the worker's cell
+     * @return the pattern index
+     */
+    public static int index(BoardState board, int cell) {
+        int[] ring = board.geometry().ring(cell);
+        int index = 0;
+        for (int i = 7; i >= 0; i--) {
+            int next = ring[i];
+            int state = next < 0 || board.isOccupied(next) ? BLOCKED : board.height(next);
+            index = index * STATES + state;
+        }
+        return board.height(cell) * RING_PATTERNS + index;
+    }
+
+    /**
+     * Returns the packed entry for a pattern; see {@link #score} and the flag constants.
+     */
+    public int entry(int index) {
+        return entries.get(index);
+    }
+
+    public static int score(int entry) {
+        return entry >> 2;
+    }
+
+    public static boolean isThreat(int entry) {
+        return (entry & THREAT) != 0;
+    }
+
+    public static boolean isTrapped(int entry) {
+        return (entry & TRAPPED) != 0;
+    }
+
+    public int[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Generates the table for the default weights, or the weights in a file, and writes it.
+     * Usage: {@code java model.ai.PatternTable [output file] [weights file]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : DEFAULT_FILE);
+        WeightedEvaluator weights = args.length > 1 ? WeightedEvaluator.load(Path.of(args[1])) : new WeightedEvaluator();
+        long start = System.currentTimeMillis();
+        PatternTable table = generate(weights);
+        table.save(output);
+        System.out.println("[AI] " + ENTRIES + " patterns written to " + output + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,267 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Best worker placements, precomputed for every way the first player can place.
+ *
+ * The first player places both workers on an empty board, then the second player places both of
+ * theirs. The table answers both decisions: for each placement of the first player, reduced to one
+ * per symmetry class (49 on a 5x5 board), every pair of free cells for the second player is scored by
+ * a fixed-depth search of the resulting position, and the pair that leaves the first player worst off
+ * is kept. The first player's entry for the empty board is the placement whose best reply scores
+ * highest. Pairs are unordered, since a player's two workers are interchangeable.
+ *
+ * Keys are canonical hashes (see {@link Symmetry}) of the partly placed board with the placing player
+ * to move, and cells are stored in the canonical frame. The table is generated offline with
+ * {@link #main}; if the file is missing, a one ply table is computed in memory instead.
+ *
+ * File layout, little-endian: int magic {@code "SPLC"}, int version, int board size, int search
+ * depth, int entry count, then per entry a long key, two cell bytes and a short score.
+ */
+public final class PlacementTable {
+    public static final int MAGIC = 0x434C5053;
+    public static final int VERSION = 1;
+    public static final int ENTRY_BYTES = 12;
+    /** Path of the table file, overridable with the {@code santorini.placements} system property. */
+    public static final String DEFAULT_FILE = System.getProperty("santorini.placements", "santorini-placements.bin");
+
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static PlacementTable defaultTable;
+
+    private final int size;
+    private final int depth;
+    private final long[] keys; // Sorted
+    private final int[] placements; // First cell << 8 | second cell
+    private final int[] scores;
+
+    private PlacementTable(int size, int depth, long[] keys, int[] placements, int[] scores) {
+        this.size = size;
+        this.depth = depth;
+        this.keys = keys;
+        this.placements = placements;
+        this.scores = scores;
+    }
+
+    /**
+     * Returns the table in {@link #DEFAULT_FILE}, or a one ply table computed in memory if the file
+     * cannot be used.
+     */
+    public static synchronized PlacementTable getDefault() {
+        if (defaultTable == null) {
+            Path file = Path.of(DEFAULT_FILE);
+            if (Files.isRegularFile(file)) {
+                try {
+                    defaultTable = load(file);
+                } catch (IOException e) {
+                    System.out.println("[AI] Could not read placement table " + file + " (" + e.getMessage()
+                            + "), computing it in memory");
+                }
+            }
+            if (defaultTable == null) {
+                defaultTable = generate(model.Board.DEFAULT_SIZE, 1);
+            }
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Reads a table file written by {@link #save}.
+     * @param file the table file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a complete table
+     */
+    public static PlacementTable load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("not a placement table");
+        }
+        int size = buffer.getInt();
+        int depth = buffer.getInt();
+        int count = buffer.getInt();
+        if (buffer.remaining() != count * ENTRY_BYTES) {
+            throw new IOException("expected " + count + " entries");
+        }
+        long[] keys = new long[count];
+        int[] placements = new int[count];
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = buffer.getLong();
+            placements[i] = (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+            scores[i] = buffer.getShort();
+        }
+        return new PlacementTable(size, depth, keys, placements, scores);
+    }
+
+    /**
+     * Writes the table in the format {@link #load} reads.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keys.length * ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(depth).putInt(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                buffer.putLong(keys[i]).put((byte) (placements[i] >> 8)).put((byte) placements[i])
+                        .putShort((short) scores[i]);
+            }
+            channel.write(buffer.flip());
+        }
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Finds the best placement for the side to move.
+     * @param state the board with the placing player to move and only the other player's workers, if any, placed
+     * @return the two cells to place the workers on, or null if the position is not in the table
+     */
+    public int[] lookup(BoardState state) {
+        if (state.size() != size) {
+            return null;
+        }
+        Symmetry symmetry = state.geometry().symmetry();
+        int transform = state.canonicalTransform();
+        int index = Arrays.binarySearch(keys, state.hash(transform));
+        if (index < 0) {
+            return null;
+        }
+        int inverse = symmetry.inverse(transform);
+        int[] cells = {symmetry.map(inverse, placements[index] >> 8), symmetry.map(inverse, placements[index] & 0xFF)};
+        if (state.isOccupied(cells[0]) || state.isOccupied(cells[1])) {
+            return null; // A different position with the same key
+        }
+        return cells;
+    }
+
+    /**
+     * Scores every placement by searching the resulting positions.
+     * @param size the number of rows and columns
+     * @param depth the search depth for each complete placement, in plies
+     * @return the table
+     */
+    public static PlacementTable generate(int size, int depth) {
+        BoardGeometry geometry = BoardGeometry.of(size);
+        Symmetry symmetry = geometry.symmetry();
+        int cells = geometry.cells();
+        Map<Long, BoardState> firstPlacements = new LinkedHashMap<>();
+        for (int a = 0; a < cells; a++) {
+            for (int b = a + 1; b < cells; b++) {
+                BoardState board = new BoardState(size);
+                board.placeWorker(0, a);
+                board.placeWorker(1, b);
+                board.setSideToMove(1);
+                int transform = board.canonicalTransform();
+                firstPlacements.putIfAbsent(board.hash(transform), symmetry.apply(board, transform));
+            }
+        }
+        List<BoardState> positions = new ArrayList<>(firstPlacements.values());
+        ThreadLocal<AlphaBetaStrategy> strategies =
+                ThreadLocal.withInitial(() -> new AlphaBetaStrategy(Long.MAX_VALUE / 4, depth));
+        // Best reply of the second player and its score for the first player, per first placement
+        int[][] replies = IntStream.range(0, positions.size()).parallel()
+                .mapToObj(i -> bestReply(positions.get(i), strategies.get()))
+                .toArray(int[][]::new);
+
+        int count = positions.size() + 1;
+        long[] keys = new long[count];
+        int[] placements = new int[count];
+        int[] scores = new int[count];
+        int best = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            BoardState board = positions.get(i);
+            keys[i] = board.hash();
+            placements[i] = replies[i][0] << 8 | replies[i][1];
+            scores[i] = -replies[i][2];
+            if (replies[i][2] > replies[best][2]) {
+                best = i;
+            }
+        }
+        // The empty board, with the first player to place; its hash is zero
+        BoardState first = positions.get(best);
+        keys[count - 1] = new BoardState(size).hash();
+        placements[count - 1] = first.workerCell(0) << 8 | first.workerCell(1);
+        scores[count - 1] = replies[best][2];
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Long.compare(keys[x], keys[y]));
+        long[] sortedKeys = new long[count];
+        int[] sortedPlacements = new int[count];
+        int[] sortedScores = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedPlacements[i] = placements[order[i]];
+            sortedScores[i] = scores[order[i]];
+        }
+        return new PlacementTable(size, depth, sortedKeys, sortedPlacements, sortedScores);
+    }
+
+    // Returns {first cell, second cell, score for the first player} of the reply that minimises the score
+    private static int[] bestReply(BoardState placed, AlphaBetaStrategy strategy) {
+        int cells = placed.geometry().cells();
+        int[] best = {-1, -1, Integer.MAX_VALUE};
+        for (int a = 0; a < cells; a++) {
+            for (int b = a + 1; b < cells; b++) {
+                if (placed.isOccupied(a) || placed.isOccupied(b)) continue;
+                BoardState board = placed.copy();
+                board.placeWorker(2, a);
+                board.placeWorker(3, b);
+                board.setSideToMove(0);
+                int[] score = {0};
+                TurnPlan plan = strategy.planTurn(board, new SearchContext(info -> score[0] = info.getScore()));
+                if (plan.isNone()) {
+                    score[0] = -AlphaBetaStrategy.WIN_SCORE;
+                } else if (TurnCodec.isWin(plan.encode(board))) {
+                    score[0] = AlphaBetaStrategy.WIN_SCORE;
+                }
+                if (score[0] < best[2]) {
+                    best = new int[]{a, b, score[0]};
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Generates the table and writes it.
+     * Usage: {@code java model.ai.PlacementTable [output file] [depth] [board size]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : model.Board.DEFAULT_SIZE;
+        long start = System.currentTimeMillis();
+        PlacementTable table = generate(size, depth);
+        table.save(output);
+        System.out.println("[AI] " + table.size() + " placements searched to depth " + depth + " written to "
+                + output + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
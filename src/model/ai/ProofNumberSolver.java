@@ -0,0 +1,237 @@
+package model.ai;
+
+/**
+ * Exact solver using depth-first proof-number search (df-pn).
+ *
+ * Every position carries a proof number (how many leaves must still be shown to be wins for the
+ * side to move) and a disproof number (how many to show it cannot win). Search always expands the
+ * most proving child, inside thresholds that let it stay deep in the tree without returning to the
+ * root. Builds only ever raise the board, so positions never repeat and the search needs no cycle
+ * handling; Santorini has no draws, so a position the side to move cannot win is a loss.
+ *
+ * Proof and disproof numbers live in a fixed-size, always-replace hash table that keeps solved
+ * entries over unsolved ones, so memory stays bounded however long the solver runs. It is keyed on
+ * the canonical form of each position, so rotations and reflections share an entry. Node, time and
+ * cancellation limits are checked as it goes, and running out simply leaves the result unknown.
+ */
+public class ProofNumberSolver {
+    /** Outcome of a solve, for the side to move at the root. */
+    public enum Outcome { WIN, LOSS, UNKNOWN }
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    // Each expansion costs tens of microseconds, so limits are polled more often than in alpha-beta
+    private static final int CHECK_INTERVAL = 63;
+
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int mask;
+    private int[][] turnBuffers = new int[0][];
+
+    private SearchContext context;
+    private long nodeLimit;
+    private long deadline;
+    private long nodes;
+    private boolean stopped;
+    private int provingTurn; // Root turn whose position the opponent was shown to lose
+
+    /**
+     * @param tableBits log2 of the number of table entries; each entry takes 16 bytes
+     */
+    public ProofNumberSolver(int tableBits) {
+        this.keys = new long[1 << tableBits];
+        this.proofs = new int[1 << tableBits];
+        this.disproofs = new int[1 << tableBits];
+        this.mask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * The result of one solve.
+     */
+    public static class Result {
+        private final Outcome outcome;
+        private final int turn;
+        private final long nodes;
+
+        Result(Outcome outcome, int turn, long nodes) {
+            this.outcome = outcome;
+            this.turn = turn;
+            this.nodes = nodes;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * The winning turn when the outcome is {@link Outcome#WIN}, otherwise {@link TurnCodec#NONE}.
+         */
+        public int getTurn() {
+            return turn;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * Tries to solve a position within the given limits.
+     * @param state the position, which is not modified
+     * @param context counts nodes and carries cancellation
+     * @param nodeLimit the most positions to expand
+     * @param timeLimitMillis the longest time to spend, or 0 for no time limit
+     * @return the outcome, and the winning turn if there is one
+     */
+    public Result solve(BoardState state, SearchContext context, long nodeLimit, long timeLimitMillis) {
+        BoardState board = state.copy();
+        this.context = context;
+        this.nodeLimit = nodeLimit;
+        this.deadline = timeLimitMillis > 0 ? System.currentTimeMillis() + timeLimitMillis : Long.MAX_VALUE;
+        this.nodes = 0;
+        this.stopped = false;
+        this.provingTurn = TurnCodec.NONE;
+        int plies = board.turnBound() + 1; // No line can be longer than the blocks left to build
+        if (turnBuffers.length < plies) {
+            turnBuffers = new int[plies][BoardState.MAX_TURNS];
+        }
+
+        int[] bounds = new int[2];
+        search(board, INFINITY - 1, INFINITY - 1, 0, bounds);
+        if (bounds[0] == 0) {
+            return new Result(Outcome.WIN, provingTurn, nodes);
+        }
+        if (bounds[1] == 0) {
+            return new Result(Outcome.LOSS, TurnCodec.NONE, nodes);
+        }
+        return new Result(Outcome.UNKNOWN, TurnCodec.NONE, nodes);
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0);
+    }
+
+    /**
+     * Expands a position until its proof number reaches {@code proofLimit} or its disproof
+     * number reaches {@code disproofLimit}.
+     * @param bounds receives the final proof and disproof numbers
+     */
+    private void search(BoardState board, int proofLimit, int disproofLimit, int ply, int[] bounds) {
+        nodes++;
+        context.countNode();
+        if ((nodes & CHECK_INTERVAL) == 0 && (nodes >= nodeLimit || context.shouldStop()
+                || System.currentTimeMillis() >= deadline)) {
+            stopped = true;
+        }
+        int[] turns = turnBuffers[ply];
+        int count = board.generateTurns(turns);
+        if (count == 0) {
+            store(board.canonicalHash(), INFINITY, 0); // A player who cannot move loses
+            bounds[0] = INFINITY;
+            bounds[1] = 0;
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (TurnCodec.isWin(turns[i])) {
+                if (ply == 0) {
+                    provingTurn = turns[i];
+                }
+                store(board.canonicalHash(), 0, INFINITY);
+                bounds[0] = 0;
+                bounds[1] = INFINITY;
+                return;
+            }
+        }
+
+        int[] child = new int[2];
+        while (true) {
+            // This node's proof number is its children's smallest disproof number, and its
+            // disproof number is the sum of their proof numbers
+            int proof = INFINITY;
+            int disproof = 0;
+            int best = -1;
+            int bestDisproof = INFINITY;
+            int secondDisproof = INFINITY;
+            int bestProof = 0;
+            for (int i = 0; i < count; i++) {
+                board.play(turns[i]);
+                lookup(board, child);
+                board.undo(turns[i]);
+                proof = Math.min(proof, child[1]);
+                disproof = Math.min(INFINITY, disproof + child[0]);
+                if (child[1] < bestDisproof) {
+                    secondDisproof = bestDisproof;
+                    bestDisproof = child[1];
+                    bestProof = child[0];
+                    best = i;
+                } else if (child[1] < secondDisproof) {
+                    secondDisproof = child[1];
+                }
+            }
+            if (ply == 0 && proof == 0) {
+                // Remembered here rather than looked up afterwards, since storing the root may evict the child
+                provingTurn = turns[best];
+            }
+            if (proof >= proofLimit || disproof >= disproofLimit || stopped) {
+                store(board.canonicalHash(), proof, disproof);
+                bounds[0] = proof;
+                bounds[1] = disproof;
+                return;
+            }
+            int childProofLimit = Math.min(INFINITY, disproofLimit - disproof + bestProof);
+            // The 1 + epsilon trick: stay with this child a little past the second best, to switch less often
+            int childDisproofLimit = Math.min(proofLimit, secondDisproof >= INFINITY / 2 ? INFINITY
+                    : Math.max(secondDisproof + 1, secondDisproof + (secondDisproof >> 2)));
+            board.play(turns[best]);
+            search(board, childProofLimit, childDisproofLimit, ply + 1, child);
+            board.undo(turns[best]);
+        }
+    }
+
+    // Numbers for a position that may not have been searched: stored values, or a quick static guess
+    private void lookup(BoardState board, int[] out) {
+        long key = board.canonicalHash();
+        int index = (int) key & mask;
+        if (keys[index] == key) {
+            out[0] = proofs[index];
+            out[1] = disproofs[index];
+            return;
+        }
+        if (hasImmediateWin(board)) {
+            out[0] = 0;
+            out[1] = INFINITY;
+        } else if (!board.hasLegalTurn()) {
+            out[0] = INFINITY;
+            out[1] = 0;
+        } else {
+            out[0] = 1;
+            out[1] = 1;
+        }
+    }
+
+    private void store(long key, int proof, int disproof) {
+        int index = (int) key & mask;
+        boolean solved = proof == 0 || disproof == 0;
+        boolean keepSolved = keys[index] != key && keys[index] != 0
+                && (proofs[index] == 0 || disproofs[index] == 0) && !solved;
+        if (keepSolved) {
+            return;
+        }
+        keys[index] = key;
+        proofs[index] = proof;
+        disproofs[index] = disproof;
+    }
+
+    private static boolean hasImmediateWin(BoardState board) {
+        int side = board.sideToMove();
+        long targets = board.levelMask(BoardState.WIN_LEVEL) & ~board.occupiedMask();
+        for (int slot = side * 2; slot < side * 2 + 2; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell >= 0 && board.height(cell) == BoardState.WIN_LEVEL - 1
+                    && (board.geometry().neighbourMask(cell) & targets) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
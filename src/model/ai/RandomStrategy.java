@@ -1,14 +1,12 @@
 package model.ai;
 
-import model.Board;
-import model.Cell;
-import model.players.ComputerPlayer;
-import model.Worker;
-import model.turns.Turn;
 import model.Position;
-import model.enums.TurnState;
+import model.cards.ArtemisCard;
+import model.cards.DemeterCard;
+import model.cards.GodCard;
+import model.cards.TritonCard;
+
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -19,185 +17,96 @@ public class RandomStrategy implements AIStrategy {
     private final Random random = new Random();
 
     /**
-     * Make a random move for the computer player.
-     * @param player The computer player
-     * @param turn The current turn
-     * @param board The game board
+     * Make a random move for the side to move, randomly using an optional God Card action.
+     * @param state The position to play from
+     * @param context The search context
+     * @return The chosen turn
      */
-    public void calculateMove(ComputerPlayer player, Turn turn, Board board) {
-        Worker selectedWorker;
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        BoardState board = state.copy();
+        BoardGeometry geometry = board.geometry();
+        int side = board.sideToMove();
+        GodCard godCard = board.godCard(side);
 
         // 1. Find all workers that can move
-        Worker[] workers = player.getWorkers();
-        List<Worker> movableWorkers = new ArrayList<>();
-        for (Worker worker : workers) {
-            // Check if this worker has at least one valid move
-            Cell currentCell = worker.getCurrentCell();
-            if (currentCell == null) continue;
-            boolean canMove = false;
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    if (dx == 0 && dy == 0) continue;
-                    int nx = currentCell.getPosition().getX() + dx;
-                    int ny = currentCell.getPosition().getY() + dy;
-                    Position pos = new Position(nx, ny);
-                    Cell dest = board.getCell(pos);
-                    if (dest != null && !dest.isOccupied() && !dest.hasDome() && dest.getHeight() <= currentCell.getHeight() + 1) {
-                        canMove = true;
-                        break;
-                    }
-                }
-                if (canMove) break;
+        List<Integer> movableWorkers = new ArrayList<>();
+        for (int slot = side * 2; slot < side * 2 + 2; slot++) {
+            if (!validMoves(board, board.workerCell(slot), -1).isEmpty()) {
+                movableWorkers.add(slot);
             }
-            if (canMove) movableWorkers.add(worker);
         }
         if (movableWorkers.isEmpty()) {
-            turn.setState(TurnState.COMPLETED);
-            return;
-        }
-        // Only select a worker if the state is WORKER_SELECTION
-        if (turn.getState() == TurnState.WORKER_SELECTION) {
-            selectedWorker = movableWorkers.get(random.nextInt(movableWorkers.size()));
-            turn.selectWorker(selectedWorker);
-        } else {
-            selectedWorker = turn.getSelectedWorker();
-            if (selectedWorker == null) {
-                turn.setState(TurnState.COMPLETED);
-                return;
-            }
+            return TurnPlan.none();
         }
+        int slot = movableWorkers.get(random.nextInt(movableWorkers.size()));
+        int start = board.workerCell(slot);
+        List<Position> moves = new ArrayList<>();
+        List<Position> builds = new ArrayList<>();
 
-        // 2. Check all available cells to move
-        List<Cell> validMoves = new ArrayList<>();
-        Cell currentCell = selectedWorker.getCurrentCell();
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-                int nx = currentCell.getPosition().getX() + dx;
-                int ny = currentCell.getPosition().getY() + dy;
-                Position pos = new Position(nx, ny);
-                Cell dest = board.getCell(pos);
-                if (dest != null && !dest.isOccupied() && !dest.hasDome() && dest.getHeight() <= currentCell.getHeight() + 1) {
-                    validMoves.add(dest);
-                }
-            }
-        }
-        if (validMoves.isEmpty()) {
-            turn.setState(TurnState.COMPLETED);
-            return;
-        }
-        // 3. Choose one and move
-        Cell moveDest = validMoves.get(random.nextInt(validMoves.size()));
-        boolean moveSuccess = turn.executeMove(moveDest);
+        // 2. Choose one of the available cells and move
+        List<Integer> validMoves = validMoves(board, start, -1);
+        int moveDest = validMoves.get(random.nextInt(validMoves.size()));
+        board.moveWorker(slot, moveDest);
+        moves.add(TurnPlan.toPosition(geometry, moveDest));
+        context.countNode();
 
-        // 3.5. If the GodCard allows SECOND_MOVE (Artemis, Triton), randomly decide to use it or skip after the first move
-        if (moveSuccess && (turn.getState() == TurnState.SECOND_MOVE)) {
-            boolean usePower = random.nextBoolean();
-            if (!usePower) {
-                // Skip GodCard action, go to build phase
-                turn.setState(TurnState.BUILDING);
-            } else {
-                // Try to perform the second move immediately
-                List<Cell> secondMoveOptions = new ArrayList<>();
-                Cell secondMoveFrom = selectedWorker.getCurrentCell();
-                for (int dx = -1; dx <= 1; dx++) {
-                    for (int dy = -1; dy <= 1; dy++) {
-                        if (dx == 0 && dy == 0) continue;
-                        int nx = secondMoveFrom.getPosition().getX() + dx;
-                        int ny = secondMoveFrom.getPosition().getY() + dy;
-                        Position pos = new Position(nx, ny);
-                        Cell dest = board.getCell(pos);
-                        if (dest != null && !dest.isOccupied() && !dest.hasDome() && dest.getHeight() <= secondMoveFrom.getHeight() + 1) {
-                            // ArtemisCard: cannot move back to initial position
-                            if (player.getGodCard() instanceof model.cards.ArtemisCard && selectedWorker.getInitialPosition() != null && selectedWorker.getInitialPosition().equals(pos)) {
-                                continue;
-                            }
-                            secondMoveOptions.add(dest);
-                        }
-                    }
-                }
-                if (!secondMoveOptions.isEmpty()) {
-                    Cell secondMoveDest = secondMoveOptions.get(random.nextInt(secondMoveOptions.size()));
-                    boolean secondMoveSuccess = turn.executeMove(secondMoveDest);
-                } else {
-                    // After second move, state should be BUILDING
-                    turn.setState(TurnState.BUILDING);
-                }
+        // 3. Artemis may move again but not back; Triton may move again from the perimeter
+        boolean extraMove = godCard instanceof ArtemisCard
+                || (godCard instanceof TritonCard && geometry.isPerimeter(moveDest));
+        if (board.height(moveDest) < BoardState.WIN_LEVEL && extraMove && random.nextBoolean()) {
+            int forbidden = godCard instanceof ArtemisCard ? start : -1;
+            List<Integer> secondMoveOptions = validMoves(board, moveDest, forbidden);
+            if (!secondMoveOptions.isEmpty()) {
+                moveDest = secondMoveOptions.get(random.nextInt(secondMoveOptions.size()));
+                board.moveWorker(slot, moveDest);
+                moves.add(TurnPlan.toPosition(geometry, moveDest));
             }
         }
+        if (board.height(moveDest) == BoardState.WIN_LEVEL) {
+            return new TurnPlan(slot & 1, moves, builds);
+        }
 
-        // 4. Only if move succeeded and state is BUILDING, check all available cells to build
-        if (!moveSuccess || turn.getState() != TurnState.BUILDING) {
-            return;
+        // 4. Choose one of the available cells and build
+        List<Integer> buildOptions = validBuilds(board, moveDest, -1);
+        if (buildOptions.isEmpty()) {
+            return new TurnPlan(slot & 1, moves, builds);
         }
+        int buildDest = buildOptions.get(random.nextInt(buildOptions.size()));
+        board.build(buildDest);
+        builds.add(TurnPlan.toPosition(geometry, buildDest));
 
-        // 5. Check all available cells to build
-        List<Cell> buildOptions = new ArrayList<>();
-        Cell buildFrom = selectedWorker.getCurrentCell();
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-                int nx = buildFrom.getPosition().getX() + dx;
-                int ny = buildFrom.getPosition().getY() + dy;
-                Position pos = new Position(nx, ny);
-                Cell dest = board.getCell(pos);
-                if (dest != null && !dest.isOccupied() && !dest.hasDome()) {
-                    buildOptions.add(dest);
-                }
+        // 5. Demeter may build once more, but not on the same space
+        if (godCard instanceof DemeterCard && random.nextBoolean()) {
+            List<Integer> secondBuildOptions = validBuilds(board, moveDest, buildDest);
+            if (!secondBuildOptions.isEmpty()) {
+                builds.add(TurnPlan.toPosition(geometry,
+                        secondBuildOptions.get(random.nextInt(secondBuildOptions.size()))));
             }
         }
-        if (buildOptions.isEmpty()) {
-            turn.setState(TurnState.COMPLETED);
-            return;
+        return new TurnPlan(slot & 1, moves, builds);
+    }
+
+    private List<Integer> validMoves(BoardState board, int from, int forbidden) {
+        List<Integer> result = new ArrayList<>();
+        if (from < 0) {
+            return result;
         }
-        // 6. Choose one and build
-        List<Cell> shuffled = new ArrayList<>(buildOptions);
-        Collections.shuffle(shuffled, random);
-        boolean buildSuccess = false;
-        for (Cell buildDest : shuffled) {
-            if (turn.executeBuild(buildDest)) {
-                buildSuccess = true;
-                break;
-            } else {
+        for (int to : board.geometry().neighbours(from)) {
+            if (to != forbidden && board.canMove(from, to)) {
+                result.add(to);
             }
         }
+        return result;
+    }
 
-        // 6.5. If the GodCard is Demeter and state is SECOND_BUILD, randomly decide to use it or skip
-        if (buildSuccess && turn.getState() == TurnState.SECOND_BUILD && player.getGodCard() instanceof model.cards.DemeterCard) {
-            boolean useDemeter = random.nextBoolean();
-            if (!useDemeter) {
-                // Skip Demeter power, end turn
-                turn.setState(TurnState.COMPLETED);
-                return;
-            } else {
-                // Try to perform the second build immediately
-                List<Cell> secondBuildOptions = new ArrayList<>();
-                Cell secondBuildFrom = selectedWorker.getCurrentCell();
-                Cell firstBuildTarget = turn.getLastBuild().getDestination();
-                for (int dx = -1; dx <= 1; dx++) {
-                    for (int dy = -1; dy <= 1; dy++) {
-                        if (dx == 0 && dy == 0) continue;
-                        int nx = secondBuildFrom.getPosition().getX() + dx;
-                        int ny = secondBuildFrom.getPosition().getY() + dy;
-                        Position pos = new Position(nx, ny);
-                        Cell dest = board.getCell(pos);
-                        // Demeter cannot build on the same space twice
-                        if (dest != null && !dest.isOccupied() && !dest.hasDome() && !dest.getPosition().equals(firstBuildTarget.getPosition())) {
-                            secondBuildOptions.add(dest);
-                        }
-                    }
-                }
-                if (!secondBuildOptions.isEmpty()) {
-                    Cell secondBuildDest = secondBuildOptions.get(random.nextInt(secondBuildOptions.size()));
-                    boolean secondBuildSuccess = turn.executeBuild(secondBuildDest);
-                    System.out.println("Second build success: " + secondBuildSuccess);
-                }
-                // End turn after second build
-                turn.setState(TurnState.COMPLETED);
-                return;
+    private List<Integer> validBuilds(BoardState board, int from, int forbidden) {
+        List<Integer> result = new ArrayList<>();
+        for (int at : board.geometry().neighbours(from)) {
+            if (at != forbidden && board.canBuild(from, at)) {
+                result.add(at);
             }
         }
-        System.out.println("[AI] Turn completed.");
-        turn.setState(TurnState.COMPLETED);
+        return result;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Retrograde analysis of reduced Santorini boards with one worker per player, giving the exact
+ * result of every position as ground truth for the engine and its evaluation.
+ *
+ * Every turn that does not win adds exactly one block, so positions fall into stages by their
+ * total block count (a dome counts as four) and a position only leads to the next stage. The solver
+ * walks the stages from the fullest board down; each position needs one pass over its turns, with
+ * the positions of one stage solved in parallel on every core.
+ *
+ * Positions are seen from the player to move and numbered by a perfect hash: the heights as a base-5
+ * number, then the mover's cell, then the opponent's cell among the remaining ones. Each result takes
+ * two bits. A 3x3 board has 5^9 * 9 * 8 = 141 million positions (35 MB). A 4x4 board would have
+ * 5^16 * 16 * 15, about 3.7 * 10^13 positions or 9 TB, and two workers per player multiply the count
+ * again, so those variants are rejected rather than attempted.
+ *
+ * Santorini cannot be drawn, so {@link #DRAW} is never produced; positions that cannot occur (a
+ * worker on a dome, both workers on one cell) stay {@link #UNKNOWN}.
+ */
+public class RetrogradeSolver {
+    public static final int UNKNOWN = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int DRAW = 3;
+    /** Largest table the solver will allocate, in positions. */
+    public static final long MAX_POSITIONS = 1L << 32;
+
+    private static final int HEIGHT_STATES = BoardState.DOME + 1;
+    private static final int MAGIC = 0x52455452;
+
+    private final BoardGeometry geometry;
+    private final int cells;
+    private final int pairs;
+    private final int heightCodes;
+    private final int[] powers;
+    private final AtomicLongArray values;
+
+    /**
+     * @param size the number of rows and columns
+     * @throws IllegalArgumentException if the board has too many positions to solve
+     */
+    public RetrogradeSolver(int size) {
+        this.geometry = BoardGeometry.of(size);
+        this.cells = geometry.cells();
+        this.pairs = cells * (cells - 1);
+        long positions = (long) Math.pow(HEIGHT_STATES, cells) * pairs;
+        if (positions > MAX_POSITIONS) {
+            throw new IllegalArgumentException(size + "x" + size + " has " + positions
+                    + " positions, more than the " + MAX_POSITIONS + " the solver can hold");
+        }
+        this.heightCodes = (int) Math.pow(HEIGHT_STATES, cells);
+        this.powers = new int[cells];
+        for (int cell = 0, power = 1; cell < cells; cell++, power *= HEIGHT_STATES) {
+            powers[cell] = power;
+        }
+        this.values = new AtomicLongArray((int) ((positions * 2 + 63) / 64));
+    }
+
+    public int getSize() {
+        return geometry.size();
+    }
+
+    public long getPositionCount() {
+        return (long) heightCodes * pairs;
+    }
+
+    /**
+     * Perfect hash of a position seen from the player to move.
+     */
+    public long index(int heightCode, int moverCell, int opponentCell) {
+        return (long) heightCode * pairs + moverCell * (cells - 1) + (opponentCell > moverCell ? opponentCell - 1 : opponentCell);
+    }
+
+    /**
+     * Result stored for a position index.
+     * @return {@link #WIN} or {@link #LOSS} for the player to move, or {@link #UNKNOWN}
+     */
+    public int value(long index) {
+        long word = values.get((int) (index >>> 5));
+        return (int) (word >>> ((index & 31) << 1)) & 3;
+    }
+
+    /**
+     * Result for the side to move in a position with one worker per player, in slots 0 and 2.
+     * @param board the position; must have this solver's size
+     * @return {@link #WIN} or {@link #LOSS} for the player to move, or {@link #UNKNOWN}
+     */
+    public int value(BoardState board) {
+        int side = board.sideToMove();
+        return value(index(heightCode(board), board.workerCell(side * 2), board.workerCell((1 - side) * 2)));
+    }
+
+    public int heightCode(BoardState board) {
+        int code = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            code += board.height(cell) * powers[cell];
+        }
+        return code;
+    }
+
+    private void store(long index, int value) {
+        values.accumulateAndGet((int) (index >>> 5), (long) value << ((index & 31) << 1), (a, b) -> a | b);
+    }
+
+    /**
+     * Solves every position, stage by stage.
+     * @param log whether to print a line per stage
+     */
+    public void solve(boolean log) {
+        byte[] stageOf = new byte[heightCodes];
+        int maxStage = cells * BoardState.DOME;
+        int[] stageSizes = new int[maxStage + 1];
+        for (int code = 0; code < heightCodes; code++) {
+            int blocks = 0;
+            for (int rest = code; rest > 0; rest /= HEIGHT_STATES) {
+                blocks += rest % HEIGHT_STATES;
+            }
+            stageOf[code] = (byte) blocks;
+            stageSizes[blocks]++;
+        }
+        for (int stage = maxStage; stage >= 0; stage--) {
+            int[] codes = new int[stageSizes[stage]];
+            for (int code = 0, n = 0; code < heightCodes; code++) {
+                if (stageOf[code] == stage) {
+                    codes[n++] = code;
+                }
+            }
+            LongAdder wins = new LongAdder();
+            LongAdder losses = new LongAdder();
+            IntStream.range(0, codes.length).parallel().forEach(i -> solveHeights(codes[i], wins, losses));
+            if (log) {
+                System.out.println("[Retrograde] stage " + stage + ": " + codes.length + " height maps, "
+                        + wins.sum() + " wins, " + losses.sum() + " losses");
+            }
+        }
+    }
+
+    private void solveHeights(int code, LongAdder wins, LongAdder losses) {
+        int[] heights = new int[cells];
+        for (int cell = 0, rest = code; cell < cells; cell++, rest /= HEIGHT_STATES) {
+            heights[cell] = rest % HEIGHT_STATES;
+        }
+        for (int mover = 0; mover < cells; mover++) {
+            if (heights[mover] == BoardState.DOME) continue;
+            for (int opponent = 0; opponent < cells; opponent++) {
+                if (opponent == mover || heights[opponent] == BoardState.DOME) continue;
+                int value = solvePosition(code, heights, mover, opponent);
+                store(index(code, mover, opponent), value);
+                (value == WIN ? wins : losses).increment();
+            }
+        }
+    }
+
+    // The opponent's children are in the next stage, which is already solved
+    private int solvePosition(int code, int[] heights, int mover, int opponent) {
+        if (heights[opponent] == BoardState.WIN_LEVEL) {
+            return LOSS; // The opponent has already climbed to level 3
+        }
+        if (heights[mover] == BoardState.WIN_LEVEL) {
+            return WIN;
+        }
+        int fromHeight = heights[mover];
+        for (int to : geometry.neighbours(mover)) {
+            int toHeight = heights[to];
+            if (to == opponent || toHeight == BoardState.DOME || toHeight > fromHeight + 1) continue;
+            if (toHeight == BoardState.WIN_LEVEL) {
+                return WIN;
+            }
+            for (int build : geometry.neighbours(to)) {
+                if (build == opponent || heights[build] == BoardState.DOME) continue;
+                if (value(index(code + powers[build], opponent, to)) == LOSS) {
+                    return WIN;
+                }
+            }
+        }
+        return LOSS; // Every turn leaves the opponent winning, or there is no turn at all
+    }
+
+    /**
+     * Writes the solved table: int magic, int board size, then the packed values, little-endian.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8 + 8 * values.length()).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(geometry.size());
+            for (int i = 0; i < values.length(); i++) {
+                buffer.putLong(values.get(i));
+            }
+            channel.write(buffer.flip());
+        }
+    }
+
+    /**
+     * Solves a reduced board and measures how often {@link AlphaBetaStrategy} misplays won positions.
+     * Usage: {@code java model.ai.RetrogradeSolver [size] [samples] [search millis] [output file]}
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long searchMillis = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        RetrogradeSolver solver = new RetrogradeSolver(size);
+        long start = System.currentTimeMillis();
+        solver.solve(true);
+        System.out.println("[Retrograde] " + solver.getPositionCount() + " positions solved in "
+                + (System.currentTimeMillis() - start) + " ms");
+        if (args.length > 3) {
+            solver.save(Path.of(args[3]));
+        }
+        solver.measure(samples, searchMillis);
+    }
+
+    /**
+     * Asks the alpha-beta search for a turn in random won positions without an immediate win,
+     * and counts the turns that give the win away.
+     */
+    public void measure(int samples, long searchMillis) {
+        Random random = new Random(1);
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(searchMillis, AlphaBetaStrategy.MAX_PLY);
+        int[] turns = new int[BoardState.MAX_TURNS];
+        int tested = 0;
+        int misplays = 0;
+        while (tested < samples) {
+            BoardState board = randomPosition(random);
+            if (board == null || value(board) != WIN) continue;
+            int count = board.generateTurns(turns);
+            boolean immediate = false;
+            for (int i = 0; i < count; i++) {
+                immediate |= TurnCodec.isWin(turns[i]);
+            }
+            if (immediate) continue;
+            TurnPlan plan = strategy.planTurn(board, new SearchContext());
+            BoardState after = plan.playOn(board);
+            tested++;
+            if (value(after) != LOSS) {
+                misplays++;
+            }
+        }
+        System.out.printf("[Retrograde] AlphaBetaStrategy at %d ms misplayed %d of %d won positions (%.1f%%)%n",
+                searchMillis, misplays, tested, 100.0 * misplays / tested);
+    }
+
+    // A random legal position with one worker each and nobody on level 3, or null
+    private BoardState randomPosition(Random random) {
+        BoardState board = new BoardState(geometry.size());
+        for (int cell = 0; cell < cells; cell++) {
+            board.setHeight(cell, random.nextInt(HEIGHT_STATES));
+        }
+        int mover = random.nextInt(cells);
+        int opponent = random.nextInt(cells);
+        if (mover == opponent || board.height(mover) >= BoardState.WIN_LEVEL
+                || board.height(opponent) >= BoardState.WIN_LEVEL) {
+            return null;
+        }
+        board.placeWorker(0, mover);
+        board.placeWorker(2, opponent);
+        return board;
+    }
+}
@@ -0,0 +1,100 @@
+package model.ai;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Offline benchmark of the search refinements in {@link AlphaBetaStrategy}.
+ * Each configuration, from plain alpha-beta up to principal variation search with late move reductions
+ * and aspiration windows, first searches the same positions to a fixed depth, which measures how many
+ * nodes the refinements save, and then plays a timed tournament against {@link MinimaxStrategy} and
+ * against plain alpha-beta, alternating who starts.
+ *
+ * Usage: {@code java model.ai.SearchBenchmark [depth] [positions] [games] [milliseconds per turn]}
+ */
+public final class SearchBenchmark {
+    private static final String[] NAMES = {"alpha-beta", "pvs", "pvs+lmr", "pvs+lmr+aspiration"};
+
+    private SearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        BoardState[] positions = samplePositions(positionCount);
+        System.out.println("[Benchmark] " + positions.length + " positions to depth " + depth);
+        for (int config = 0; config < NAMES.length; config++) {
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (BoardState position : positions) {
+                SearchContext context = new SearchContext();
+                create(config, 600_000, depth).planTurn(position, context);
+                nodes += context.getNodes();
+            }
+            long ms = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            System.out.printf("[Benchmark] %-20s %,12d nodes %7d ms%n", NAMES[config], nodes, ms);
+        }
+
+        System.out.println("[Benchmark] " + games + " games per match at " + millis + " ms per turn");
+        for (int config = 0; config < NAMES.length; config++) {
+            int c = config;
+            int[] versusMinimax = match(() -> create(c, millis, AlphaBetaStrategy.MAX_PLY),
+                    () -> new MinimaxStrategy(2), games);
+            String line = String.format("[Benchmark] %-20s vs minimax %d-%d", NAMES[config],
+                    versusMinimax[0], versusMinimax[1]);
+            if (config > 0) {
+                int[] versusPlain = match(() -> create(c, millis, AlphaBetaStrategy.MAX_PLY),
+                        () -> create(0, millis, AlphaBetaStrategy.MAX_PLY), games);
+                line += ", vs alpha-beta " + versusPlain[0] + "-" + versusPlain[1];
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static AlphaBetaStrategy create(int config, long millis, int depth) {
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(millis, depth);
+        strategy.setPrincipalVariationSearch(config >= 1);
+        strategy.setLateMoveReductions(config >= 2);
+        strategy.setAspirationWindow(config >= 3 ? strategy.getAspirationWindow() : 0);
+        return strategy;
+    }
+
+    // Plays games from random starts with fresh strategies each game; returns {wins, losses} of the first
+    private static int[] match(Supplier<AIStrategy> first, Supplier<AIStrategy> second, int games) {
+        Random random = new Random(7);
+        int[] result = new int[2];
+        for (int game = 0; game < games; game++) {
+            int firstSide = game % 2;
+            AIStrategy[] strategies = new AIStrategy[2];
+            strategies[firstSide] = first.get();
+            strategies[1 - firstSide] = second.get();
+            int winner = SelfPlay.play(SelfPlay.randomStart(5, random), strategies, 0, random, null);
+            if (winner >= 0) {
+                result[winner == firstSide ? 0 : 1]++;
+            }
+        }
+        return result;
+    }
+
+    // Positions a few random plies into games from random starts
+    private static BoardState[] samplePositions(int count) {
+        Random random = new Random(42);
+        int[] turns = new int[BoardState.MAX_TURNS];
+        BoardState[] positions = new BoardState[count];
+        for (int i = 0; i < count; i++) {
+            BoardState board;
+            do {
+                board = SelfPlay.randomStart(5, random);
+                int plies = random.nextInt(12);
+                for (int ply = 0; ply < plies && SelfPlay.isQuiet(board, turns); ply++) {
+                    board.play(turns[random.nextInt(board.generateTurns(turns))]);
+                }
+            } while (!SelfPlay.isQuiet(board, turns));
+            positions[i] = board;
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,133 @@
+package model.ai;
+
+/**
+ * Per-search bookkeeping shared between a strategy and whoever started it:
+ * node and depth statistics, progress reporting, cooperative cancellation and an optional deadline.
+ * A context is used for exactly one search.
+ */
+public class SearchContext {
+    private final SearchListener listener;
+    private volatile boolean cancelled;
+    private boolean pondering;
+    private long deadline;
+    private boolean hasDeadline;
+    private boolean expired;
+    private TurnPlan bestTurn;
+    private long nodes;
+    private int depth;
+    private int score;
+
+    public SearchContext() {
+        this(null);
+    }
+
+    /**
+     * @param listener receives progress reports, or null to ignore them
+     */
+    public SearchContext(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks the search to stop. The strategy returns its best turn so far at the next check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks the search as running ahead on a predicted position, so nobody is waiting on its turn yet.
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Sets a point in time at which the search stops and returns its best turn so far. Unlike
+     * {@link #cancel}, the result of a search stopped by its deadline is still meant to be played.
+     * @param deadlineNanos the deadline on the {@link System#nanoTime} scale
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.deadline = deadlineNanos;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * Whether the search should stop now, because it was cancelled or its deadline has passed.
+     * Searches call this where they already poll for cancellation, so a deadline adds one clock read
+     * per poll and nothing per node.
+     */
+    public boolean shouldStop() {
+        if (cancelled || expired) {
+            return true;
+        }
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            expired = true;
+        }
+        return expired;
+    }
+
+    /**
+     * Time left until the deadline, so a strategy can share it between several engines.
+     * @return the milliseconds left, or {@link Long#MAX_VALUE} if there is no deadline
+     */
+    public long getRemainingMillis() {
+        return hasDeadline ? Math.max(0, (deadline - System.nanoTime()) / 1_000_000) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether the search was stopped by its deadline.
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+
+    public void countNode() {
+        nodes++;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Score of the last report, from the point of view of the side to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * The turn of the last report, the best turn found so far, or null before the first report.
+     */
+    public TurnPlan getBestTurn() {
+        return bestTurn;
+    }
+
+    /**
+     * Publishes the current best turn to the listener, if any.
+     */
+    public void report(int score, TurnPlan bestTurn) {
+        this.score = score;
+        this.bestTurn = bestTurn;
+        if (listener != null) {
+            listener.onProgress(new SearchInfo(depth, nodes, score, bestTurn));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package model.ai;
+
+/**
+ * Progress report published by a strategy while it searches.
+ */
+public class SearchInfo {
+    private final int depth;
+    private final long nodes;
+    private final int score;
+    private final TurnPlan bestTurn;
+
+    public SearchInfo(int depth, long nodes, int score, TurnPlan bestTurn) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.score = score;
+        this.bestTurn = bestTurn;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Score of the best turn found so far, from the point of view of the side to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public TurnPlan getBestTurn() {
+        return bestTurn;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + ", " + nodes + " nodes, score " + score;
+    }
+}
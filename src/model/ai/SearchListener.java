@@ -0,0 +1,9 @@
+package model.ai;
+
+/**
+ * Receives progress reports from a running search. Called on the search thread.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    void onProgress(SearchInfo info);
+}
@@ -0,0 +1,110 @@
+package model.ai;
+
+import java.util.Random;
+
+/**
+ * Plays engine-only games between two strategies, without a live {@link model.Game}.
+ * Used by the offline tools that learn from self-play.
+ */
+public final class SelfPlay {
+    /** Games that reach this many plies are abandoned as draws. */
+    public static final int MAX_PLIES = 200;
+
+    private SelfPlay() {
+    }
+
+    /**
+     * Receives the positions of a game as it is played.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param board the position before its side moves; must not be modified or kept
+         * @param score the mover's search score for the position, or 0 for a random opening ply
+         */
+        void visit(BoardState board, int score);
+    }
+
+    /**
+     * Creates an empty board with all four workers on random distinct cells, first player to move.
+     * @param size the number of rows and columns
+     * @param random the source of randomness
+     * @return the starting position
+     */
+    public static BoardState randomStart(int size, Random random) {
+        BoardState state = new BoardState(size);
+        int cells = state.geometry().cells();
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int cell;
+            do {
+                cell = random.nextInt(cells);
+            } while (state.isOccupied(cell));
+            state.placeWorker(slot, cell);
+        }
+        return state;
+    }
+
+    /**
+     * Plays one game to the end.
+     * @param start the starting position, which is not modified
+     * @param strategies the strategy for each side
+     * @param randomPlies number of opening plies played at random (taking a win if there is one), for variety
+     * @param random the source of randomness for the opening plies
+     * @param visitor receives every position with a legal turn, or null
+     * @return the winning side, or -1 if the game was abandoned
+     */
+    public static int play(BoardState start, AIStrategy[] strategies, int randomPlies, Random random,
+                           Visitor visitor) {
+        BoardState board = start.copy();
+        int[] turns = new int[BoardState.MAX_TURNS];
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            int side = board.sideToMove();
+            TurnPlan plan;
+            int score = 0;
+            if (ply < randomPlies) {
+                int count = board.generateTurns(turns);
+                if (count == 0) {
+                    return 1 - side;
+                }
+                int turn = turns[random.nextInt(count)];
+                for (int i = 0; i < count; i++) {
+                    if (TurnCodec.isWin(turns[i])) {
+                        turn = turns[i];
+                    }
+                }
+                plan = TurnPlan.of(board, turn);
+            } else {
+                int[] lastScore = new int[1];
+                plan = strategies[side].planTurn(board, new SearchContext(info -> lastScore[0] = info.getScore()));
+                score = lastScore[0];
+            }
+            if (plan.isNone()) {
+                return 1 - side; // A player who cannot move loses
+            }
+            if (visitor != null) {
+                visitor.visit(board, score);
+            }
+            board = plan.playOn(board);
+            if (board.maxWorkerHeight(side) == BoardState.WIN_LEVEL) {
+                return side;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks that the side to move has a legal turn and no immediate win. A search never evaluates
+     * any other position, so only these are useful for fitting an evaluation.
+     * @param board the position
+     * @param turns buffer of at least {@link BoardState#MAX_TURNS} entries
+     */
+    public static boolean isQuiet(BoardState board, int[] turns) {
+        int count = board.generateTurns(turns);
+        for (int i = 0; i < count; i++) {
+            if (TurnCodec.isWin(turns[i])) {
+                return false;
+            }
+        }
+        return count > 0;
+    }
+}
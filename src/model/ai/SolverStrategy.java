@@ -0,0 +1,67 @@
+package model.ai;
+
+/**
+ * Plays a proven win whenever the proof-number solver finds one, and otherwise defers to another strategy.
+ * The solver is tried only when the side to move has few legal turns, which is when a late game is
+ * small enough to be solved; it gets part of the turn's node and time budget, so the turn never waits
+ * on it for long.
+ */
+public class SolverStrategy implements AIStrategy {
+    /** The solver runs when the side to move has at most this many legal turns. */
+    public static final int DEFAULT_TURN_THRESHOLD = 24;
+
+    private final AIStrategy fallback;
+    private final ProofNumberSolver solver;
+    private final int turnThreshold;
+    private final long nodeLimit;
+    private final long timeLimitMillis;
+    private final int[] turns = new int[BoardState.MAX_TURNS];
+
+    /**
+     * Solves with up to 2 million nodes or half a second, for positions with at most
+     * {@link #DEFAULT_TURN_THRESHOLD} legal turns.
+     * @param fallback the strategy for positions that are not solved
+     */
+    public SolverStrategy(AIStrategy fallback) {
+        this(fallback, DEFAULT_TURN_THRESHOLD, 2_000_000, 500);
+    }
+
+    /**
+     * @param fallback the strategy for positions that are not solved
+     * @param turnThreshold the solver runs when the side to move has at most this many legal turns
+     * @param nodeLimit the most positions the solver may expand per turn
+     * @param timeLimitMillis the longest the solver may run per turn, or 0 to stop on the node limit alone;
+     *                        the solver's table is then cleared before each turn, so the outcome depends
+     *                        only on the position
+     */
+    public SolverStrategy(AIStrategy fallback, int turnThreshold, long nodeLimit, long timeLimitMillis) {
+        this.fallback = fallback;
+        this.solver = new ProofNumberSolver(20);
+        this.turnThreshold = turnThreshold;
+        this.nodeLimit = nodeLimit;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public AIStrategy getFallback() {
+        return fallback;
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        int count = state.generateTurns(turns);
+        if (count > 0 && count <= turnThreshold) {
+            if (timeLimitMillis == 0) {
+                solver.clear();
+            }
+            ProofNumberSolver.Result result = solver.solve(state, context, nodeLimit, timeLimitMillis);
+            System.out.println("[AI] Solver: " + result.getOutcome() + " after " + result.getNodes() + " nodes ("
+                    + count + " legal turns)");
+            if (result.getOutcome() == ProofNumberSolver.Outcome.WIN && result.getTurn() != TurnCodec.NONE) {
+                TurnPlan plan = TurnPlan.of(state, result.getTurn());
+                context.report(AlphaBetaStrategy.WIN_SCORE, plan);
+                return plan;
+            }
+        }
+        return fallback.planTurn(state, context);
+    }
+}
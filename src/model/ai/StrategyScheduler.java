@@ -0,0 +1,232 @@
+package model.ai;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses an engine for each turn: the opening book, the proof-number solver, alpha-beta or MCTS.
+ * The choice is made from three cheap measurements of the position: whether the book covers it, the
+ * branching factor (the number of legal turns) and the phase (the number of blocks built). The turn's
+ * thinking time is the player's remaining clock spread over the turns the game is likely to last.
+ * <ul>
+ *   <li>Book positions are played from the book at no cost.</li>
+ *   <li>With few legal turns the game is usually small enough to solve, so the solver gets the first
+ *       part of the budget and alpha-beta the rest if it finds no win.</li>
+ *   <li>MCTS can be given the wide early game on short budgets with {@link #setMctsLimits}. It is off by
+ *       default: alpha-beta won all 20 games of self-play matches against it at both 10 and 200 ms per
+ *       turn, so there is no phase where it is measured to be stronger.</li>
+ *   <li>Everything else goes to alpha-beta.</li>
+ * </ul>
+ * Every decision is logged with its inputs, so the thresholds can be tuned from real games.
+ * The engines are kept for the whole game, so their tables and trees carry over between turns.
+ */
+public class StrategyScheduler implements AIStrategy {
+    public enum Engine { BOOK, SOLVER, ALPHA_BETA, MCTS }
+
+    /** Turns per player the budget is spread over, however close the game looks to ending. */
+    private static final int MIN_TURNS_TO_GO = 8;
+    /** The shortest think, so a nearly empty clock still gets a legal and sensible turn. */
+    private static final long MIN_TURN_MILLIS = 50;
+    private static final long DEFAULT_SOLVER_NODES = 2_000_000;
+    /** The solver's time limit when there is no clock to budget from. */
+    private static final long DEFAULT_SOLVER_MILLIS = 500;
+
+    private final BookStrategy book;
+    private final AlphaBetaStrategy alphaBeta;
+    private final MctsStrategy mcts;
+    private final ProofNumberSolver solver = new ProofNumberSolver(20);
+    private final LongSupplier clock;
+    private final int[] turns = new int[BoardState.MAX_TURNS];
+    private long maxTurnMillis = 1000;
+    private int solverBranching = SolverStrategy.DEFAULT_TURN_THRESHOLD;
+    private long solverNodes = DEFAULT_SOLVER_NODES;
+    private long mctsMaxMillis;
+    private int mctsMaxBlocks;
+    private final long alphaBetaMillis; // The search's own time limit, for turns with no budget
+    private volatile Decision lastDecision;
+    private int solved;
+
+    /**
+     * @param book the opening book
+     * @param alphaBeta the main search
+     * @param mcts the search for wide positions on a short budget, or null if it is never used
+     * @param clock the player's remaining time in milliseconds, or null to use each engine's own limits;
+     *              with no clock and an alpha-beta node limit the choice and the turn depend only on the
+     *              position
+     */
+    public StrategyScheduler(OpeningBook book, AlphaBetaStrategy alphaBeta, MctsStrategy mcts, LongSupplier clock) {
+        this.book = new BookStrategy(book, alphaBeta);
+        this.alphaBeta = alphaBeta;
+        this.alphaBetaMillis = alphaBeta.getTimeLimit();
+        this.mcts = mcts;
+        this.clock = clock;
+    }
+
+    public AlphaBetaStrategy getAlphaBeta() {
+        return alphaBeta;
+    }
+
+    /**
+     * Sets the longest think for one turn when the clock has plenty of time left.
+     * @param maxTurnMillis the cap in milliseconds
+     */
+    public void setMaxTurnMillis(long maxTurnMillis) {
+        this.maxTurnMillis = Math.max(MIN_TURN_MILLIS, maxTurnMillis);
+    }
+
+    /**
+     * Sets when the solver is tried and how many positions it may expand per turn.
+     * @param branching the solver runs when the side to move has at most this many legal turns
+     * @param nodes the most positions the solver may expand per turn
+     */
+    public void setSolverLimits(int branching, long nodes) {
+        this.solverBranching = branching;
+        this.solverNodes = nodes;
+    }
+
+    /**
+     * Sets when MCTS replaces alpha-beta. Only applies to turns with a time budget, since MCTS has no
+     * node limit.
+     * @param maxMillis MCTS is used when the turn's budget is at most this long, or 0 never to use it
+     * @param maxBlocks and at most this many blocks have been built
+     */
+    public void setMctsLimits(long maxMillis, int maxBlocks) {
+        this.mctsMaxMillis = maxMillis;
+        this.mctsMaxBlocks = maxBlocks;
+    }
+
+    /**
+     * The engine chosen for the last turn and the measurements it was chosen from, or null before the first.
+     */
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    @Override
+    public String decisionName() {
+        Decision decision = lastDecision;
+        return decision == null ? getClass().getSimpleName() : decision.getEngine().name();
+    }
+
+    @Override
+    public TurnPlan planTurn(BoardState state, SearchContext context) {
+        int branching = state.generateTurns(turns);
+        if (branching == 0) {
+            return TurnPlan.none();
+        }
+        int blocks = state.blockCount();
+        long remaining = clock == null ? -1 : clock.getAsLong();
+        long budget = clock == null ? 0 : turnBudget(state, blocks, remaining);
+        long untilDeadline = context.getRemainingMillis();
+        if (untilDeadline != Long.MAX_VALUE) {
+            // A deadline set by the caller, e.g. a DeadlineStrategy, is shared between the engines too
+            budget = Math.max(1, budget == 0 ? untilDeadline : Math.min(budget, untilDeadline));
+        }
+        long start = System.currentTimeMillis();
+
+        Engine engine;
+        TurnPlan plan;
+        int bookTurn = book.lookup(state);
+        if (bookTurn != TurnCodec.NONE) {
+            engine = Engine.BOOK;
+            plan = book.planBookTurn(state, bookTurn, context);
+        } else if (branching <= solverBranching && solve(state, context, budget)) {
+            engine = Engine.SOLVER;
+            plan = TurnPlan.of(state, solved);
+            context.report(AlphaBetaStrategy.WIN_SCORE, plan);
+        } else if (mcts != null && budget > 0 && budget <= mctsMaxMillis && blocks <= mctsMaxBlocks) {
+            engine = Engine.MCTS;
+            mcts.setTimeLimit(budget);
+            plan = mcts.planTurn(state, context);
+        } else {
+            engine = Engine.ALPHA_BETA;
+            alphaBeta.setTimeLimit(budget == 0 ? alphaBetaMillis
+                    : Math.max(1, budget - (System.currentTimeMillis() - start)));
+            plan = alphaBeta.planTurn(state, context);
+        }
+        Decision decision = new Decision(engine, branching, blocks, remaining, budget);
+        lastDecision = decision;
+        System.out.println("[AI] Scheduler: " + decision);
+        return plan;
+    }
+
+    // Runs the solver on part of the budget; true if it proved a win, whose first turn is left in solved
+    private boolean solve(BoardState state, SearchContext context, long budget) {
+        long millis = Math.max(1, budget / 2);
+        if (budget == 0) {
+            boolean nodesOnly = alphaBeta.getNodeLimit() > 0;
+            if (nodesOnly) {
+                solver.clear(); // No time limit, so the outcome must not depend on earlier turns
+            }
+            millis = nodesOnly ? 0 : DEFAULT_SOLVER_MILLIS;
+        }
+        ProofNumberSolver.Result result = solver.solve(state, context, solverNodes, millis);
+        System.out.println("[AI] Solver: " + result.getOutcome() + " after " + result.getNodes() + " nodes");
+        solved = result.getTurn();
+        return result.getOutcome() == ProofNumberSolver.Outcome.WIN && solved != TurnCodec.NONE;
+    }
+
+    /**
+     * Spreads the remaining clock over the turns still to play. Each turn builds one block, and games
+     * rarely outlast the board reaching level 3 everywhere, so the blocks still missing from that,
+     * shared by both players, estimate this player's turns to go.
+     */
+    private long turnBudget(BoardState state, int blocks, long remaining) {
+        int missing = Math.max(0, state.geometry().cells() * BoardState.WIN_LEVEL - blocks);
+        int turnsToGo = Math.max(MIN_TURNS_TO_GO, missing / 2);
+        return Math.max(MIN_TURN_MILLIS, Math.min(maxTurnMillis, remaining / turnsToGo));
+    }
+
+    /**
+     * One scheduling decision and the measurements behind it.
+     */
+    public static class Decision {
+        private final Engine engine;
+        private final int branching;
+        private final int blocks;
+        private final long clockMillis;
+        private final long budgetMillis;
+
+        public Decision(Engine engine, int branching, int blocks, long clockMillis, long budgetMillis) {
+            this.engine = engine;
+            this.branching = branching;
+            this.blocks = blocks;
+            this.clockMillis = clockMillis;
+            this.budgetMillis = budgetMillis;
+        }
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public int getBranching() {
+            return branching;
+        }
+
+        public int getBlocks() {
+            return blocks;
+        }
+
+        /**
+         * The remaining clock when the turn started, or -1 if the scheduler has no clock.
+         */
+        public long getClockMillis() {
+            return clockMillis;
+        }
+
+        /**
+         * The turn's thinking time, from the clock or the caller's deadline, or 0 if the engines' own
+         * limits applied.
+         */
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+
+        @Override
+        public String toString() {
+            return engine + " (branching " + branching + ", blocks " + blocks
+                    + (clockMillis < 0 ? ", no clock" : ", clock " + clockMillis + " ms")
+                    + (budgetMillis == 0 ? "" : ", budget " + budgetMillis + " ms")
+                    + ")";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package model.ai;
+
+/**
+ * The eight rotations and reflections of a square board.
+ * Santorini's rules look the same under all of them, so positions that map onto each other have the
+ * same value and their best turns map onto each other too. {@link BoardState} hashes every image
+ * and picks the one with the smallest hash as the canonical form, which lets tables
+ * store one entry for all eight: a turn is stored with {@link #toCanonical} and read back with
+ * {@link #fromCanonical}.
+ */
+public final class Symmetry {
+    public static final int COUNT = 8;
+    /** The transform that leaves every cell in place. */
+    public static final int IDENTITY = 0;
+
+    private final BoardGeometry geometry;
+    private final int[][] maps;
+    private final int[] inverses;
+
+    Symmetry(BoardGeometry geometry) {
+        this.geometry = geometry;
+        int size = geometry.size();
+        int last = size - 1;
+        this.maps = new int[COUNT][geometry.cells()];
+        for (int cell = 0; cell < geometry.cells(); cell++) {
+            int row = geometry.row(cell);
+            int col = geometry.col(cell);
+            int[][] images = {
+                    {row, col}, {col, last - row}, {last - row, last - col}, {last - col, row},
+                    {row, last - col}, {last - row, col}, {col, row}, {last - col, last - row}
+            };
+            for (int t = 0; t < COUNT; t++) {
+                maps[t][cell] = geometry.cell(images[t][0], images[t][1]);
+            }
+        }
+        this.inverses = new int[COUNT];
+        for (int t = 0; t < COUNT; t++) {
+            for (int u = 0; u < COUNT; u++) {
+                if (maps[u][maps[t][0]] == 0 && maps[u][maps[t][1]] == 1 && maps[u][maps[t][size]] == size) {
+                    inverses[t] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Where a transform sends a cell.
+     */
+    public int map(int transform, int cell) {
+        return maps[transform][cell];
+    }
+
+    /**
+     * The transform that undoes another.
+     */
+    public int inverse(int transform) {
+        return inverses[transform];
+    }
+
+    // Every transform's cell map, indexed [transform][cell], for BoardState's transformed hashes
+    int[][] maps() {
+        return maps;
+    }
+
+    /**
+     * Builds the transformed position. Workers keep their slots.
+     */
+    public BoardState apply(BoardState board, int transform) {
+        BoardState result = new BoardState(geometry.size());
+        for (int cell = 0; cell < geometry.cells(); cell++) {
+            result.setHeight(maps[transform][cell], board.height(cell));
+        }
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell >= 0) {
+                result.placeWorker(slot, maps[transform][cell]);
+            }
+        }
+        result.setSideToMove(board.sideToMove());
+        result.setGodCard(0, board.godCard(0));
+        result.setGodCard(1, board.godCard(1));
+        return result;
+    }
+
+    /**
+     * Maps the cells of a turn through a transform, keeping its worker slot.
+     */
+    public int mapTurn(int turn, int transform) {
+        int[] map = maps[transform];
+        int slot = TurnCodec.slot(turn);
+        int from = map[TurnCodec.from(turn)];
+        int to = map[TurnCodec.to(turn)];
+        return TurnCodec.isWin(turn) ? TurnCodec.encodeWin(slot, from, to)
+                : TurnCodec.encode(slot, from, to, map[TurnCodec.build(turn)]);
+    }
+
+    /**
+     * Maps a turn on the real board into the canonical frame.
+     * @param turn the turn
+     * @param transform the board's {@link BoardState#canonicalTransform()}
+     */
+    public int toCanonical(int turn, int transform) {
+        return turn == TurnCodec.NONE ? TurnCodec.NONE : mapTurn(turn, transform);
+    }
+
+    /**
+     * Maps a turn stored in the canonical frame back onto the real board. The canonical form does not
+     * tell a player's two workers apart, so the worker slot is taken from the board.
+     * @param board the position
+     * @param turn the stored turn
+     * @param transform the board's {@link BoardState#canonicalTransform()}
+     * @return the turn, or {@link TurnCodec#NONE} if no worker of the side to move stands where it starts
+     */
+    public int fromCanonical(BoardState board, int turn, int transform) {
+        if (turn == TurnCodec.NONE) {
+            return TurnCodec.NONE;
+        }
+        int mapped = mapTurn(turn, inverses[transform]);
+        int from = TurnCodec.from(mapped);
+        int slot = board.occupant(from);
+        if (slot < 0 || BoardState.sideOf(slot) != board.sideToMove()) {
+            return TurnCodec.NONE;
+        }
+        return TurnCodec.isWin(mapped) ? TurnCodec.encodeWin(slot, from, TurnCodec.to(mapped))
+                : TurnCodec.encode(slot, from, TurnCodec.to(mapped), TurnCodec.build(mapped));
+    }
+}
@@ -0,0 +1,114 @@
+package model.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tool that writes self-play positions for training an evaluation such as {@link NnueEvaluator}.
+ * Games are played in parallel with {@link AlphaBetaStrategy}; every quiet position is written with
+ * the mover's search score and the game's result. Positions are written in their canonical
+ * orientation (see {@link Symmetry}), so mirror images of a position appear as the same record.
+ *
+ * File layout, big-endian as written by {@link DataOutputStream}: int magic {@code "SPOS"}, int
+ * version, then one record per position: byte board size, one byte per cell with its height
+ * (4 for a dome), four bytes with the worker cells of slots 0 to 3, byte side to move,
+ * short search score for the side to move and byte result (1 if the side to move won, 0 if it lost).
+ *
+ * Usage: {@code java model.ai.TrainingDataExporter <games> <depth> <output file>}
+ */
+public final class TrainingDataExporter {
+    public static final int MAGIC = 0x53504F53;
+    public static final int VERSION = 1;
+
+    private static final int BOARD_SIZE = 5;
+    private static final int RANDOM_PLIES = 4;
+
+    private TrainingDataExporter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: TrainingDataExporter <games> <depth> <output file>");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        Path output = Path.of(args[2]);
+
+        long began = System.currentTimeMillis();
+        List<byte[]> records = IntStream.range(0, games).parallel()
+                .mapToObj(game -> playGame(game, depth))
+                .toList();
+        int positions = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (byte[] record : records) {
+                out.write(record);
+                positions += record.length / recordLength(BOARD_SIZE);
+            }
+        }
+        System.out.println("[Export] " + positions + " positions from " + games + " games written to "
+                + output + " in " + (System.currentTimeMillis() - began) + " ms");
+    }
+
+    /**
+     * Length in bytes of one position record.
+     */
+    public static int recordLength(int size) {
+        return 1 + size * size + BoardState.SLOTS + 1 + 2 + 1;
+    }
+
+    private static byte[] playGame(int game, int depth) {
+        Random random = new Random(game);
+        AIStrategy[] strategies = {
+                new AlphaBetaStrategy(60_000, depth),
+                new AlphaBetaStrategy(60_000, depth)
+        };
+        List<byte[]> positions = new ArrayList<>();
+        List<Integer> sides = new ArrayList<>();
+        int[] turns = new int[BoardState.MAX_TURNS];
+        int winner = SelfPlay.play(SelfPlay.randomStart(BOARD_SIZE, random), strategies, RANDOM_PLIES, random, (board, score) -> {
+            if (SelfPlay.isQuiet(board, turns)) {
+                positions.add(encode(board.geometry().symmetry().apply(board, board.canonicalTransform()), score));
+                sides.add(board.sideToMove());
+            }
+        });
+        if (winner < 0) {
+            return new byte[0];
+        }
+        int length = recordLength(BOARD_SIZE);
+        byte[] records = new byte[positions.size() * length];
+        for (int i = 0; i < positions.size(); i++) {
+            byte[] position = positions.get(i);
+            position[length - 1] = (byte) (sides.get(i) == winner ? 1 : 0);
+            System.arraycopy(position, 0, records, i * length, length);
+        }
+        return records;
+    }
+
+    private static byte[] encode(BoardState board, int score) {
+        int cells = board.geometry().cells();
+        byte[] record = new byte[recordLength(board.size())];
+        int index = 0;
+        record[index++] = (byte) board.size();
+        for (int cell = 0; cell < cells; cell++) {
+            record[index++] = (byte) board.height(cell);
+        }
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            record[index++] = (byte) board.workerCell(slot);
+        }
+        record[index++] = (byte) board.sideToMove();
+        int clamped = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+        record[index++] = (byte) (clamped >> 8);
+        record[index] = (byte) clamped;
+        return record;
+    }
+}
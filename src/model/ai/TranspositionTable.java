@@ -0,0 +1,169 @@
+package model.ai;
+
+/**
+ * Fixed-size hash table of search results, keyed by {@link BoardState#canonicalHash()} with turns in the
+ * canonical frame (see {@link Symmetry}).
+ * Entries live in two-slot buckets and carry the stage of their position, its
+ * {@link BoardState#blockCount()}. The block count never falls during a game, so an entry from a stage
+ * below the current root can never be probed again. A new result replaces a matching key, otherwise a
+ * slot from such a dead stage, otherwise the shallower slot. The table is owned by one strategy and
+ * survives between turns, so earlier searches keep paying off while their unreachable entries are the
+ * first to go.
+ * <p>
+ * Clearing policy: dead stages are evicted lazily by the replacement above, so no sweep is needed
+ * during a game, and a root below the previous root's stage means a new game, which clears the table.
+ * The table never grows, so memory stays flat over any number of games.
+ * Not thread-safe: a strategy searches on one thread at a time.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+    /** Depth stored for a score searched to the end of every line, which is exact at any depth. */
+    public static final int FULL_DEPTH = 0xFF;
+
+    private static final int SCORE_SHIFT = 24;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int BOUND_SHIFT = 48;
+    private static final int STAGE_SHIFT = 50;
+    private static final int STAGE_MASK = 0x1FF; // Up to 8 * 8 cells of four blocks
+
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+    private int rootStage;
+    private long probes;
+    private long hits;
+
+    /**
+     * @param sizeBits the table holds {@code 2^sizeBits} entries
+     */
+    public TranspositionTable(int sizeBits) {
+        int capacity = 1 << sizeBits;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Marks the start of a new search. Entries from stages below the root become preferred victims,
+     * and a root from an earlier stage than the last one starts a new game with an empty table.
+     * @param stage the block count of the root position
+     */
+    public void newSearch(int stage) {
+        if (stage < rootStage) {
+            clear();
+        }
+        rootStage = stage;
+    }
+
+    public int getRootStage() {
+        return rootStage;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key the position hash
+     * @return the packed entry, or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        probes++;
+        int index = (int) key & mask & ~1;
+        if (keys[index] == key && values[index] != 0) {
+            hits++;
+            return values[index];
+        }
+        if (keys[index + 1] == key && values[index + 1] != 0) {
+            hits++;
+            return values[index + 1];
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result.
+     * @param key the position hash
+     * @param turn the best turn found, or {@link TurnCodec#NONE}
+     * @param score the score, already adjusted for distance to a win
+     * @param depth the remaining depth the score was searched to, or {@link #FULL_DEPTH}
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param stage the block count of the position
+     */
+    public void store(long key, int turn, int score, int depth, int bound, int stage) {
+        int index = (int) key & mask & ~1;
+        int slot;
+        if (keys[index] == key || values[index] == 0) {
+            slot = index;
+        } else if (keys[index + 1] == key || values[index + 1] == 0) {
+            slot = index + 1;
+        } else {
+            boolean firstDead = stage(values[index]) < rootStage;
+            boolean secondDead = stage(values[index + 1]) < rootStage;
+            if (firstDead != secondDead) {
+                slot = firstDead ? index : index + 1;
+            } else {
+                slot = depth(values[index]) <= depth(values[index + 1]) ? index : index + 1;
+            }
+        }
+        if (keys[slot] == key && turn == TurnCodec.NONE) {
+            turn = turn(values[slot]); // Keep the known best turn when a bound carries none
+        }
+        keys[slot] = key;
+        values[slot] = pack(turn, score, depth, bound) | ((long) (stage & STAGE_MASK) << STAGE_SHIFT);
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(values, 0);
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the probe and hit counters and resets them, for publishing per search.
+     */
+    public long[] drainCounters() {
+        long[] counters = {probes, hits};
+        probes = 0;
+        hits = 0;
+        return counters;
+    }
+
+    private static long pack(int turn, int score, int depth, int bound) {
+        // The bound is stored plus one so a used entry is never zero
+        return (turn & 0xFFFFFFL)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) (bound + 1) << BOUND_SHIFT);
+    }
+
+    public static int turn(long entry) {
+        return (int) (entry & 0xFFFFFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 3) - 1;
+    }
+
+    public static int stage(long entry) {
+        return (int) (entry >>> STAGE_SHIFT) & STAGE_MASK;
+    }
+}
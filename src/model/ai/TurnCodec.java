@@ -0,0 +1,63 @@
+package model.ai;
+
+/**
+ * Packs a complete engine turn (worker, move and build) into a single {@code int}.
+ * A turn that climbs onto level 3 wins immediately and carries no build.
+ * The value {@link #NONE} never encodes a legal turn, because a worker cannot move onto its own cell.
+ */
+public final class TurnCodec {
+    public static final int NONE = 0;
+
+    private static final int CELL_BITS = 6;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int FROM_SHIFT = 2;
+    private static final int TO_SHIFT = FROM_SHIFT + CELL_BITS;
+    private static final int BUILD_SHIFT = TO_SHIFT + CELL_BITS;
+    private static final int WIN_FLAG = 1 << (BUILD_SHIFT + CELL_BITS);
+
+    private TurnCodec() {
+    }
+
+    public static int encode(int slot, int from, int to, int build) {
+        return slot | (from << FROM_SHIFT) | (to << TO_SHIFT) | (build << BUILD_SHIFT);
+    }
+
+    public static int encodeWin(int slot, int from, int to) {
+        return slot | (from << FROM_SHIFT) | (to << TO_SHIFT) | WIN_FLAG;
+    }
+
+    /**
+     * Worker slot: 0 and 1 belong to the first player, 2 and 3 to the second.
+     */
+    public static int slot(int turn) {
+        return turn & 3;
+    }
+
+    public static int from(int turn) {
+        return (turn >>> FROM_SHIFT) & CELL_MASK;
+    }
+
+    public static int to(int turn) {
+        return (turn >>> TO_SHIFT) & CELL_MASK;
+    }
+
+    public static int build(int turn) {
+        return (turn >>> BUILD_SHIFT) & CELL_MASK;
+    }
+
+    public static boolean isWin(int turn) {
+        return (turn & WIN_FLAG) != 0;
+    }
+
+    public static String toString(int turn, int size) {
+        if (turn == NONE) {
+            return "none";
+        }
+        String text = "w" + slot(turn) + " " + cellName(from(turn), size) + "->" + cellName(to(turn), size);
+        return isWin(turn) ? text + " wins" : text + " build " + cellName(build(turn), size);
+    }
+
+    private static String cellName(int cell, int size) {
+        return "(" + cell / size + "," + cell % size + ")";
+    }
+}
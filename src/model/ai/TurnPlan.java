@@ -0,0 +1,158 @@
+package model.ai;
+
+import model.Board;
+import model.Position;
+import model.enums.TurnState;
+import model.players.Player;
+import model.turns.Turn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A turn chosen by a strategy on a {@link BoardState}, ready to be replayed on the live {@link Turn}.
+ * Holds the worker and the ordered destinations of its moves and builds; an optional God Card
+ * action is simply a second entry in the list.
+ */
+public class TurnPlan {
+    private static final TurnPlan NONE = new TurnPlan(-1, List.of(), List.of());
+
+    private final int workerIndex;
+    private final List<Position> moves;
+    private final List<Position> builds;
+
+    public TurnPlan(int workerIndex, List<Position> moves, List<Position> builds) {
+        this.workerIndex = workerIndex;
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+        this.builds = Collections.unmodifiableList(new ArrayList<>(builds));
+    }
+
+    /**
+     * Plan used when the side to move has no legal turn.
+     */
+    public static TurnPlan none() {
+        return NONE;
+    }
+
+    /**
+     * Converts an encoded engine turn into a plan.
+     * @param state the position the turn was generated in
+     * @param turn the encoded turn
+     * @return the plan, or {@link #none()} for {@link TurnCodec#NONE}
+     */
+    public static TurnPlan of(BoardState state, int turn) {
+        if (turn == TurnCodec.NONE) {
+            return NONE;
+        }
+        BoardGeometry geometry = state.geometry();
+        Position move = toPosition(geometry, TurnCodec.to(turn));
+        List<Position> builds = TurnCodec.isWin(turn)
+                ? List.of()
+                : List.of(toPosition(geometry, TurnCodec.build(turn)));
+        return new TurnPlan(TurnCodec.slot(turn) & 1, List.of(move), builds);
+    }
+
+    /**
+     * Converts a plan with one move and at most one build back into an encoded engine turn.
+     * @param state the position the plan was computed for
+     * @return the encoded turn, or {@link TurnCodec#NONE} for {@link #none()} and God Card turns
+     */
+    public int encode(BoardState state) {
+        if (isNone() || moves.size() != 1 || builds.size() > 1) {
+            return TurnCodec.NONE;
+        }
+        BoardGeometry geometry = state.geometry();
+        int slot = state.sideToMove() * 2 + workerIndex;
+        int to = geometry.cell(moves.get(0).getX(), moves.get(0).getY());
+        if (builds.isEmpty()) {
+            return TurnCodec.encodeWin(slot, state.workerCell(slot), to);
+        }
+        int build = geometry.cell(builds.get(0).getX(), builds.get(0).getY());
+        return TurnCodec.encode(slot, state.workerCell(slot), to, build);
+    }
+
+    public static Position toPosition(BoardGeometry geometry, int cell) {
+        return new Position(geometry.row(cell), geometry.col(cell));
+    }
+
+    public boolean isNone() {
+        return workerIndex < 0;
+    }
+
+    /**
+     * Index of the worker within its owner's {@code getWorkers()} array.
+     */
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
+    public List<Position> getMoves() {
+        return moves;
+    }
+
+    public List<Position> getBuilds() {
+        return builds;
+    }
+
+    /**
+     * Plays this plan on a copy of a snapshot and passes the move to the other side.
+     * @param state the position the plan was computed for
+     * @return the resulting position
+     */
+    public BoardState playOn(BoardState state) {
+        BoardState result = state.copy();
+        BoardGeometry geometry = result.geometry();
+        int slot = state.sideToMove() * 2 + workerIndex;
+        for (Position move : moves) {
+            result.moveWorker(slot, geometry.cell(move.getX(), move.getY()));
+        }
+        for (Position build : builds) {
+            result.build(geometry.cell(build.getX(), build.getY()));
+        }
+        result.setSideToMove(1 - state.sideToMove());
+        return result;
+    }
+
+    /**
+     * Replays this plan through the normal {@link Turn} rules. Must run on the thread that owns the game.
+     * @param turn the live turn, in worker selection
+     * @param player the player the plan was computed for
+     * @return true if every action was accepted and the turn is complete
+     */
+    public boolean applyTo(Turn turn, Player player) {
+        if (isNone() || moves.isEmpty()) {
+            return false;
+        }
+        Board board = turn.getBoard();
+        if (turn.getState() == TurnState.WORKER_SELECTION) {
+            turn.selectWorker(player.getWorker(workerIndex));
+        }
+        for (Position move : moves) {
+            if (!turn.executeMove(board.getCell(move))) {
+                return false;
+            }
+            if (turn.isComplete()) {
+                return true; // Climbed to level 3
+            }
+        }
+        if (turn.getState() == TurnState.SECOND_MOVE) {
+            turn.setState(TurnState.BUILDING); // Optional extra move declined
+        }
+        for (Position build : builds) {
+            if (!turn.executeBuild(board.getCell(build))) {
+                return false;
+            }
+        }
+        if (turn.getState() == TurnState.SECOND_BUILD) {
+            turn.complete(); // Optional extra build declined
+        }
+        return turn.isComplete();
+    }
+
+    @Override
+    public String toString() {
+        return isNone() ? "TurnPlan[none]"
+                : "TurnPlan[worker=" + workerIndex + ", moves=" + moves + ", builds=" + builds + "]";
+    }
+}
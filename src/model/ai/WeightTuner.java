@@ -0,0 +1,188 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tool that fits {@link WeightedEvaluator} weights to the results of self-play games.
+ * Games are played in parallel on every core with a shallow {@link AlphaBetaStrategy}; each
+ * position is labelled with whether the side to move went on to win, and the weights are fitted
+ * by logistic regression over the feature differences, again split across all cores.
+ *
+ * Usage: {@code java model.ai.WeightTuner <games> <depth> <output file> [starting weights file]}
+ */
+public final class WeightTuner {
+    /** Score difference that corresponds to odds of e:1 for the side to move. */
+    private static final double SCALE = 200.0;
+    private static final int BOARD_SIZE = 5;
+    private static final int RANDOM_PLIES = 4;
+    private static final int ITERATIONS = 2000;
+    private static final double LEARNING_RATE = 1.0;
+
+    private final int[] features;
+    private final byte[] results;
+    private final int samples;
+
+    private WeightTuner(int[] features, byte[] results) {
+        this.features = features;
+        this.results = results;
+        this.samples = results.length;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: WeightTuner <games> <depth> <output file> [starting weights file]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        Path output = Path.of(args[2]);
+        WeightedEvaluator start = args.length > 3 ? WeightedEvaluator.load(Path.of(args[3])) : new WeightedEvaluator();
+
+        long began = System.currentTimeMillis();
+        WeightTuner tuner = collect(games, depth, start);
+        System.out.println("[Tuner] " + tuner.samples + " positions from " + games + " games in "
+                + (System.currentTimeMillis() - began) + " ms");
+
+        int[] weights = tuner.fit(start.getWeights());
+        WeightedEvaluator tuned = new WeightedEvaluator(weights);
+        tuned.save(output);
+        for (int feature = 0; feature < WeightedEvaluator.FEATURES; feature++) {
+            System.out.println("[Tuner] " + WeightedEvaluator.featureName(feature) + " = " + weights[feature]);
+        }
+        System.out.println("[Tuner] Weights written to " + output);
+    }
+
+    /**
+     * Plays the games in parallel and gathers the labelled feature vectors.
+     */
+    private static WeightTuner collect(int games, int depth, WeightedEvaluator evaluator) {
+        List<GameRecord> records = IntStream.range(0, games).parallel()
+                .mapToObj(game -> playGame(game, depth, evaluator))
+                .toList();
+        int total = 0;
+        for (GameRecord record : records) {
+            total += record.results.length;
+        }
+        int[] features = new int[total * WeightedEvaluator.FEATURES];
+        byte[] results = new byte[total];
+        int offset = 0;
+        for (GameRecord record : records) {
+            System.arraycopy(record.features, 0, features, offset * WeightedEvaluator.FEATURES, record.features.length);
+            System.arraycopy(record.results, 0, results, offset, record.results.length);
+            offset += record.results.length;
+        }
+        return new WeightTuner(features, results);
+    }
+
+    private static GameRecord playGame(int game, int depth, WeightedEvaluator evaluator) {
+        Random random = new Random(game);
+        AIStrategy[] strategies = {
+                new AlphaBetaStrategy(60_000, depth, evaluator),
+                new AlphaBetaStrategy(60_000, depth, evaluator)
+        };
+        List<int[]> positions = new ArrayList<>();
+        List<Integer> sides = new ArrayList<>();
+        int[] turns = new int[BoardState.MAX_TURNS];
+        int winner = SelfPlay.play(SelfPlay.randomStart(BOARD_SIZE, random), strategies, RANDOM_PLIES, random, (board, score) -> {
+            if (SelfPlay.isQuiet(board, turns)) {
+                int[] vector = new int[WeightedEvaluator.FEATURES];
+                WeightedEvaluator.features(board, vector);
+                positions.add(vector);
+                sides.add(board.sideToMove());
+            }
+        });
+        if (winner < 0) {
+            return new GameRecord(new int[0], new byte[0]);
+        }
+        int[] features = new int[positions.size() * WeightedEvaluator.FEATURES];
+        byte[] results = new byte[positions.size()];
+        for (int i = 0; i < positions.size(); i++) {
+            System.arraycopy(positions.get(i), 0, features, i * WeightedEvaluator.FEATURES, WeightedEvaluator.FEATURES);
+            results[i] = (byte) (sides.get(i) == winner ? 1 : 0);
+        }
+        return new GameRecord(features, results);
+    }
+
+    /**
+     * Minimises the log loss of the predicted results with Adam, computing each gradient in parallel.
+     */
+    private int[] fit(int[] initial) {
+        int n = WeightedEvaluator.FEATURES;
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = initial[i];
+        }
+        double[] mean = new double[n];
+        double[] variance = new double[n];
+        int chunks = Runtime.getRuntime().availableProcessors() * 4;
+        for (int iteration = 1; iteration <= ITERATIONS; iteration++) {
+            double[] current = weights;
+            double[] gradient = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> gradient(current, chunk, chunks))
+                    .reduce(new double[n + 1], WeightTuner::add);
+            for (int i = 0; i < n; i++) {
+                double g = gradient[i] / samples;
+                mean[i] = 0.9 * mean[i] + 0.1 * g;
+                variance[i] = 0.999 * variance[i] + 0.001 * g * g;
+                double meanHat = mean[i] / (1 - Math.pow(0.9, iteration));
+                double varianceHat = variance[i] / (1 - Math.pow(0.999, iteration));
+                weights[i] -= LEARNING_RATE * meanHat / (Math.sqrt(varianceHat) + 1e-9);
+            }
+            if (iteration % 200 == 0) {
+                System.out.println("[Tuner] iteration " + iteration + ", loss " + gradient[n] / samples);
+            }
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = (int) Math.round(weights[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gradient of the log loss over one slice of the samples; the last entry holds the loss itself.
+     */
+    private double[] gradient(double[] weights, int chunk, int chunks) {
+        int n = WeightedEvaluator.FEATURES;
+        double[] sum = new double[n + 1];
+        int from = (int) ((long) samples * chunk / chunks);
+        int to = (int) ((long) samples * (chunk + 1) / chunks);
+        for (int s = from; s < to; s++) {
+            int base = s * n;
+            double score = 0;
+            for (int i = 0; i < n; i++) {
+                score += weights[i] * features[base + i];
+            }
+            double p = 1.0 / (1.0 + Math.exp(-score / SCALE));
+            double error = (p - results[s]) / SCALE;
+            for (int i = 0; i < n; i++) {
+                sum[i] += error * features[base + i];
+            }
+            sum[n] -= results[s] == 1 ? Math.log(Math.max(p, 1e-12)) : Math.log(Math.max(1 - p, 1e-12));
+        }
+        return sum;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static class GameRecord {
+        private final int[] features;
+        private final byte[] results;
+
+        private GameRecord(int[] features, byte[] results) {
+            this.features = features;
+            this.results = results;
+        }
+    }
+}
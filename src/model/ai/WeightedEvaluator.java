@@ -0,0 +1,179 @@
+package model.ai;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Linear evaluation over a small set of per-worker features.
+ * Every feature of a worker depends only on the worker's cell and its neighbours, so a change to the
+ * board only affects the workers standing next to it. The score is the weighted difference between
+ * the feature totals of the side to move and of its opponent.
+ */
+public class WeightedEvaluator implements Evaluator {
+    /** Level the worker stands on. */
+    public static final int HEIGHT = 0;
+    /** Neighbouring cells the worker can step to. */
+    public static final int MOBILITY = 1;
+    /** Neighbouring cells one level higher that the worker can climb to. */
+    public static final int CLIMB = 2;
+    /** Free level 3 cells next to a worker standing on level 2, i.e. wins on the next turn. */
+    public static final int THREAT = 3;
+    /** Whether the worker stands on the edge of the board, where it has fewer ways out. */
+    public static final int PERIMETER = 4;
+    /** Domes next to the worker, which cap the cells it could use. */
+    public static final int DOME = 5;
+    public static final int FEATURES = 6;
+
+    private static final String[] NAMES = {"height", "mobility", "climb", "threat", "perimeter", "dome"};
+    // Fitted by WeightTuner on 1500 depth-3 self-play games; mobility mostly counts through climbs
+    private static final int[] DEFAULT_WEIGHTS = {136, -4, 46, 95, -51, -9};
+
+    private final int[] weights;
+
+    /**
+     * Creates an evaluator with the default weights.
+     */
+    public WeightedEvaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * @param weights one weight per feature, indexed by the feature constants
+     */
+    public WeightedEvaluator(int[] weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    public int[] getWeights() {
+        return weights.clone();
+    }
+
+    public static String featureName(int feature) {
+        return NAMES[feature];
+    }
+
+    @Override
+    public int evaluate(BoardState board) {
+        int side = board.sideToMove();
+        int score = 0;
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int workerScore = workerScore(board, slot);
+            score += BoardState.sideOf(slot) == side ? workerScore : -workerScore;
+        }
+        return score;
+    }
+
+    /**
+     * Weighted feature total of a single worker.
+     * @param board the position
+     * @param slot the worker slot
+     * @return the worker's contribution for its own side, or 0 if it has not been placed
+     */
+    public int workerScore(BoardState board, int slot) {
+        int cell = board.workerCell(slot);
+        if (cell < 0) {
+            return 0;
+        }
+        int height = board.height(cell);
+        int mobility = 0;
+        int climbs = 0;
+        int threats = 0;
+        int domes = 0;
+        for (int next : board.geometry().neighbours(cell)) {
+            int nextHeight = board.height(next);
+            if (nextHeight == BoardState.DOME) {
+                domes++;
+            } else if (!board.isOccupied(next) && nextHeight <= height + 1) {
+                mobility++;
+                if (nextHeight == height + 1) {
+                    climbs++;
+                    if (nextHeight == BoardState.WIN_LEVEL) {
+                        threats++;
+                    }
+                }
+            }
+        }
+        return weights[HEIGHT] * height
+                + weights[MOBILITY] * mobility
+                + weights[CLIMB] * climbs
+                + weights[THREAT] * threats
+                + (board.geometry().isPerimeter(cell) ? weights[PERIMETER] : 0)
+                + weights[DOME] * domes;
+    }
+
+    /**
+     * Writes the feature difference between the side to move and its opponent, the vector the
+     * weights are multiplied with. Used by {@link WeightTuner} to fit the weights.
+     * @param board the position
+     * @param out buffer of at least {@link #FEATURES} entries
+     */
+    public static void features(BoardState board, int[] out) {
+        java.util.Arrays.fill(out, 0, FEATURES, 0);
+        int side = board.sideToMove();
+        for (int slot = 0; slot < BoardState.SLOTS; slot++) {
+            int cell = board.workerCell(slot);
+            if (cell < 0) continue;
+            int sign = BoardState.sideOf(slot) == side ? 1 : -1;
+            int height = board.height(cell);
+            out[HEIGHT] += sign * height;
+            out[PERIMETER] += board.geometry().isPerimeter(cell) ? sign : 0;
+            for (int next : board.geometry().neighbours(cell)) {
+                int nextHeight = board.height(next);
+                if (nextHeight == BoardState.DOME) {
+                    out[DOME] += sign;
+                } else if (!board.isOccupied(next) && nextHeight <= height + 1) {
+                    out[MOBILITY] += sign;
+                    if (nextHeight == height + 1) {
+                        out[CLIMB] += sign;
+                        if (nextHeight == BoardState.WIN_LEVEL) {
+                            out[THREAT] += sign;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads weights written by {@link #save}. Missing features keep their default weight.
+     * @param file the weights file
+     * @return the evaluator
+     * @throws IOException if the file cannot be read
+     */
+    public static WeightedEvaluator load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        for (int feature = 0; feature < FEATURES; feature++) {
+            String value = properties.getProperty(NAMES[feature]);
+            if (value != null) {
+                weights[feature] = Integer.parseInt(value.trim());
+            }
+        }
+        return new WeightedEvaluator(weights);
+    }
+
+    /**
+     * Writes the weights as a properties file, one feature per line.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        for (int feature = 0; feature < FEATURES; feature++) {
+            properties.setProperty(NAMES[feature], String.valueOf(weights[feature]));
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "Santorini evaluation weights");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package model.ai;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for positions of one board size.
+ * Worker keys depend only on the owning side, so swapping a player's two workers gives the same hash.
+ * Keys come from a fixed seed, so hashes are stable between runs and can be stored in files.
+ */
+public final class Zobrist {
+    private final long[][] heightKeys;
+    private final long[][] workerKeys;
+    private final long sideKey;
+
+    Zobrist(int cells) {
+        SplittableRandom random = new SplittableRandom(0x5A4E0B1EL + cells);
+        heightKeys = new long[cells][BoardState.DOME + 1];
+        workerKeys = new long[2][cells];
+        for (int cell = 0; cell < cells; cell++) {
+            // Height 0 hashes to zero so an empty board only depends on the workers
+            for (int height = 1; height <= BoardState.DOME; height++) {
+                heightKeys[cell][height] = random.nextLong();
+            }
+            workerKeys[0][cell] = random.nextLong();
+            workerKeys[1][cell] = random.nextLong();
+        }
+        sideKey = random.nextLong();
+    }
+
+    public long height(int cell, int height) {
+        return heightKeys[cell][height];
+    }
+
+    public long worker(int side, int cell) {
+        return workerKeys[side][cell];
+    }
+
+    /**
+     * Key mixed in when the second player is to move.
+     */
+    public long side() {
+        return sideKey;
+    }
+}
@@ -36,8 +36,7 @@ public class TritonCard implements GodCard {
     public boolean canMoveAgain(MoveAction moveAction, Board board) {
         Cell destination = moveAction.getDestination();
         Position pos = destination.getPosition();
-        // Board size is fixed to 5 (see Board.java)
-        int size = 5;
+        int size = board.getSize();
         // Perimeter: x == 0, y == 0, x == size-1, y == size-1
         return pos.getX() == 0 || pos.getY() == 0 ||
                pos.getX() == size - 1 || pos.getY() == size - 1;
@@ -0,0 +1,42 @@
+package model.enums;
+
+/**
+ * Enum for computer player strength.
+ * Each level is a fixed search budget in nodes plus an amount of evaluation noise, never a time limit,
+ * so a level plays the same turns on any machine.
+ */
+public enum Difficulty {
+    EASY("Easy", 2_000, 200),
+    MEDIUM("Medium", 20_000, 80),
+    HARD("Hard", 200_000, 20),
+    EXPERT("Expert", 2_000_000, 0);
+
+    private final String label;
+    private final long nodeBudget;
+    private final int noise;
+
+    Difficulty(String label, long nodeBudget, int noise) {
+        this.label = label;
+        this.nodeBudget = nodeBudget;
+        this.noise = noise;
+    }
+
+    /**
+     * The most positions the computer may search per turn, including the late-game solver's.
+     */
+    public long getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /**
+     * The largest amount, in evaluation units, by which a position's score may be shifted either way.
+     */
+    public int getNoise() {
+        return noise;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
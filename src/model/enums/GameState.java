@@ -5,6 +5,7 @@ package model.enums;
  */
 public enum GameState {
     SETUP,
+    PLACEMENT,
     PLAYING,
     GAME_OVER
 }
\ No newline at end of file
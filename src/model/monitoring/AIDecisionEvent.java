@@ -0,0 +1,33 @@
+package model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one decision made by a computer player.
+ */
+@Name("santorini.AIDecision")
+@Label("AI Decision")
+@Category({"Santorini", "AI"})
+@Description("Time spent by an AI strategy choosing a turn")
+public class AIDecisionEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Depth Reached")
+    public int depth;
+
+    @Label("Nodes Searched")
+    public long nodes;
+
+    @Label("Pondering")
+    @Description("Searched during the opponent's turn on a predicted position")
+    public boolean pondering;
+}
@@ -0,0 +1,23 @@
+package model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a full rebuild of the board panel in the GUI.
+ */
+@Name("santorini.BoardRebuild")
+@Label("Board Rebuild")
+@Category({"Santorini", "UI"})
+@Description("Recreation of every cell button on the board panel")
+public class BoardRebuildEvent extends Event {
+
+    @Label("Cells")
+    public int cells;
+
+    @Label("Highlighted Cells")
+    public int highlighted;
+}
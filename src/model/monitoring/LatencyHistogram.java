@@ -0,0 +1,97 @@
+package model.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets.
+ * Each power of two is split into four sub-buckets, so percentiles are accurate to about 25%.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 62 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one sample.
+     * @param nanos the measured latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of samples fall.
+     * @param quantile the quantile between 0 and 1, e.g. 0.99
+     * @return the upper bound of the matching bucket in milliseconds
+     */
+    public double getPercentileMillis(double quantile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Returns an immutable summary suitable for JMX.
+     * @return the summary of the samples recorded so far
+     */
+    public LatencySnapshot snapshot() {
+        return new LatencySnapshot(getCount(), getMeanMillis(), getPercentileMillis(0.5),
+                getPercentileMillis(0.9), getPercentileMillis(0.99), getMaxMillis());
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - 2)) & (SUB_BUCKETS - 1));
+        return Math.min(BUCKETS - 1, exponent * SUB_BUCKETS + sub - SUB_BUCKETS);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket + SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket + SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 2)) - 1;
+    }
+}
@@ -0,0 +1,56 @@
+package model.monitoring;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Point-in-time summary of a {@link LatencyHistogram}, exposed over JMX as composite data.
+ */
+public class LatencySnapshot {
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    @ConstructorParameters({"count", "meanMillis", "p50Millis", "p90Millis", "p99Millis", "maxMillis"})
+    public LatencySnapshot(long count, double meanMillis, double p50Millis,
+                           double p90Millis, double p99Millis, double maxMillis) {
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                count, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis);
+    }
+}
@@ -0,0 +1,306 @@
+package model.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters for the game engine and the AI, published as an MXBean.
+ * All counters are {@link LongAdder}s so recording from the game and search threads stays cheap.
+ */
+public class SantoriniMetrics implements SantoriniMetricsMXBean {
+    public static final String OBJECT_NAME = "santorini:type=SantoriniMetrics";
+
+    private static final SantoriniMetrics INSTANCE = new SantoriniMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder turnsExecuted = new LongAdder();
+    private final LongAdder movesValidated = new LongAdder();
+    private final LongAdder movesRejected = new LongAdder();
+    private final LongAdder buildsValidated = new LongAdder();
+    private final LongAdder buildsRejected = new LongAdder();
+    private final LongAdder aiDecisions = new LongAdder();
+    private final LongAdder aiNodes = new LongAdder();
+    private final LongAdder aiSearchNanos = new LongAdder();
+    private final LongAdder depthTotal = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder transpositionProbes = new LongAdder();
+    private final LongAdder transpositionHits = new LongAdder();
+    private final LongAdder evaluationCacheProbes = new LongAdder();
+    private final LongAdder evaluationCacheHits = new LongAdder();
+    private final LongAdder ponderHits = new LongAdder();
+    private final LongAdder ponderMisses = new LongAdder();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LongAdder deadlineTurns = new LongAdder();
+    private final LongAdder deadlineBreaches = new LongAdder();
+    private final LongAccumulator maxDeadlineOverrunNanos = new LongAccumulator(Math::max, 0);
+    private final Map<String, LatencyHistogram> deadlineLatencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> deadlineBreachesByStrategy = new ConcurrentHashMap<>();
+
+    private SantoriniMetrics() {
+    }
+
+    public static SantoriniMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Safe to call more than once.
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    public void recordGameStarted() {
+        gamesStarted.increment();
+    }
+
+    public void recordGameFinished() {
+        gamesFinished.increment();
+    }
+
+    public void recordTurnExecuted() {
+        turnsExecuted.increment();
+    }
+
+    public void recordMove(boolean valid) {
+        (valid ? movesValidated : movesRejected).increment();
+    }
+
+    public void recordBuild(boolean valid) {
+        (valid ? buildsValidated : buildsRejected).increment();
+    }
+
+    /**
+     * Records one AI decision.
+     * @param strategy the strategy name
+     * @param nanos the wall time spent deciding
+     * @param depth the search depth reached
+     * @param nodes the number of positions searched
+     */
+    public void recordDecision(String strategy, long nanos, int depth, long nodes) {
+        aiDecisions.increment();
+        aiSearchNanos.add(nanos);
+        aiNodes.add(nodes);
+        depthTotal.add(depth);
+        maxDepth.accumulate(depth);
+        latencies.computeIfAbsent(strategy, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records one turn played under a fixed latency budget.
+     * @param strategy the strategy or engine name
+     * @param nanos the wall time from the start of the turn to the chosen turn
+     * @param budgetNanos the budget the turn had to meet
+     */
+    public void recordDeadline(String strategy, long nanos, long budgetNanos) {
+        deadlineTurns.increment();
+        deadlineLatencies.computeIfAbsent(strategy, key -> new LatencyHistogram()).record(nanos);
+        if (nanos > budgetNanos) {
+            deadlineBreaches.increment();
+            deadlineBreachesByStrategy.computeIfAbsent(strategy, key -> new LongAdder()).increment();
+            maxDeadlineOverrunNanos.accumulate(nanos - budgetNanos);
+        }
+    }
+
+    /**
+     * Records the transposition table lookups of one search.
+     * @param probes the number of lookups
+     * @param hits the number of lookups that found a stored entry
+     */
+    public void recordTranspositionProbes(long probes, long hits) {
+        transpositionProbes.add(probes);
+        transpositionHits.add(hits);
+    }
+
+    /**
+     * Records the evaluation cache lookups of one search.
+     * @param probes the number of lookups
+     * @param hits the number of lookups answered from the cache
+     */
+    public void recordEvaluationCacheProbes(long probes, long hits) {
+        evaluationCacheProbes.add(probes);
+        evaluationCacheHits.add(hits);
+    }
+
+    /**
+     * Records whether the position searched while pondering was the one actually reached.
+     * @param hit true if the pondered search was reused
+     */
+    public void recordPonder(boolean hit) {
+        (hit ? ponderHits : ponderMisses).increment();
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public long getTurnsExecuted() {
+        return turnsExecuted.sum();
+    }
+
+    @Override
+    public long getMovesValidated() {
+        return movesValidated.sum();
+    }
+
+    @Override
+    public long getMovesRejected() {
+        return movesRejected.sum();
+    }
+
+    @Override
+    public long getBuildsValidated() {
+        return buildsValidated.sum();
+    }
+
+    @Override
+    public long getBuildsRejected() {
+        return buildsRejected.sum();
+    }
+
+    @Override
+    public long getAiDecisions() {
+        return aiDecisions.sum();
+    }
+
+    @Override
+    public long getAiNodesSearched() {
+        return aiNodes.sum();
+    }
+
+    @Override
+    public double getAiNodesPerSecond() {
+        long nanos = aiSearchNanos.sum();
+        return nanos == 0 ? 0 : aiNodes.sum() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public double getAverageSearchDepth() {
+        long decisions = aiDecisions.sum();
+        return decisions == 0 ? 0 : (double) depthTotal.sum() / decisions;
+    }
+
+    @Override
+    public long getMaxSearchDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long getTranspositionProbes() {
+        return transpositionProbes.sum();
+    }
+
+    @Override
+    public double getTranspositionHitRate() {
+        long probes = transpositionProbes.sum();
+        return probes == 0 ? 0 : (double) transpositionHits.sum() / probes;
+    }
+
+    @Override
+    public long getEvaluationCacheProbes() {
+        return evaluationCacheProbes.sum();
+    }
+
+    @Override
+    public double getEvaluationCacheHitRate() {
+        long probes = evaluationCacheProbes.sum();
+        return probes == 0 ? 0 : (double) evaluationCacheHits.sum() / probes;
+    }
+
+    @Override
+    public long getPonderHits() {
+        return ponderHits.sum();
+    }
+
+    @Override
+    public long getPonderMisses() {
+        return ponderMisses.sum();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getDecisionLatency() {
+        Map<String, LatencySnapshot> result = new TreeMap<>();
+        latencies.forEach((strategy, histogram) -> result.put(strategy, histogram.snapshot()));
+        return result;
+    }
+
+    @Override
+    public long getDeadlineTurns() {
+        return deadlineTurns.sum();
+    }
+
+    @Override
+    public long getDeadlineBreaches() {
+        return deadlineBreaches.sum();
+    }
+
+    @Override
+    public double getMaxDeadlineOverrunMillis() {
+        return maxDeadlineOverrunNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public Map<String, Long> getDeadlineBreachesByStrategy() {
+        Map<String, Long> result = new TreeMap<>();
+        deadlineBreachesByStrategy.forEach((strategy, breaches) -> result.put(strategy, breaches.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getDeadlineLatency() {
+        Map<String, LatencySnapshot> result = new TreeMap<>();
+        deadlineLatencies.forEach((strategy, histogram) -> result.put(strategy, histogram.snapshot()));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        gamesStarted.reset();
+        gamesFinished.reset();
+        turnsExecuted.reset();
+        movesValidated.reset();
+        movesRejected.reset();
+        buildsValidated.reset();
+        buildsRejected.reset();
+        aiDecisions.reset();
+        aiNodes.reset();
+        aiSearchNanos.reset();
+        depthTotal.reset();
+        maxDepth.reset();
+        transpositionProbes.reset();
+        transpositionHits.reset();
+        evaluationCacheProbes.reset();
+        evaluationCacheHits.reset();
+        ponderHits.reset();
+        ponderMisses.reset();
+        latencies.clear();
+        deadlineTurns.reset();
+        deadlineBreaches.reset();
+        maxDeadlineOverrunNanos.reset();
+        deadlineLatencies.clear();
+        deadlineBreachesByStrategy.clear();
+    }
+}
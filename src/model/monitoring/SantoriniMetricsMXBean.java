@@ -0,0 +1,81 @@
+package model.monitoring;
+
+import java.util.Map;
+
+/**
+ * Management interface for live engine and AI statistics.
+ */
+public interface SantoriniMetricsMXBean {
+    long getGamesStarted();
+
+    long getGamesFinished();
+
+    long getTurnsExecuted();
+
+    long getMovesValidated();
+
+    long getMovesRejected();
+
+    long getBuildsValidated();
+
+    long getBuildsRejected();
+
+    long getAiDecisions();
+
+    long getAiNodesSearched();
+
+    double getAiNodesPerSecond();
+
+    double getAverageSearchDepth();
+
+    long getMaxSearchDepth();
+
+    long getTranspositionProbes();
+
+    double getTranspositionHitRate();
+
+    long getEvaluationCacheProbes();
+
+    double getEvaluationCacheHitRate();
+
+    long getPonderHits();
+
+    long getPonderMisses();
+
+    /**
+     * Decision latency per strategy, keyed by strategy name.
+     * @return a summary of the latency distribution for each strategy
+     */
+    Map<String, LatencySnapshot> getDecisionLatency();
+
+    /**
+     * Turns played under a latency budget, see {@link model.ai.DeadlineStrategy}.
+     */
+    long getDeadlineTurns();
+
+    /**
+     * Turns that took longer than their latency budget.
+     */
+    long getDeadlineBreaches();
+
+    /**
+     * The most any turn has gone over its latency budget.
+     */
+    double getMaxDeadlineOverrunMillis();
+
+    /**
+     * Latency budget breaches per strategy, keyed by strategy name.
+     */
+    Map<String, Long> getDeadlineBreachesByStrategy();
+
+    /**
+     * Latency of turns played under a budget, per strategy, measured from the start of the turn.
+     * @return a summary of the latency distribution for each strategy
+     */
+    Map<String, LatencySnapshot> getDeadlineLatency();
+
+    /**
+     * Clears all counters.
+     */
+    void reset();
+}
@@ -0,0 +1,29 @@
+package model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one player's turn, from creation until it is handed over.
+ */
+@Name("santorini.Turn")
+@Label("Turn")
+@Category({"Santorini", "Game"})
+@Description("A single player's turn from creation until the turn is switched")
+public class TurnEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("God Card")
+    public String godCard;
+
+    @Label("Moves")
+    public int moves;
+
+    @Label("Builds")
+    public int builds;
+}
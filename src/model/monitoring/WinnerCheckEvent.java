@@ -0,0 +1,23 @@
+package model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for each end-of-turn winner check.
+ */
+@Name("santorini.WinnerCheck")
+@Label("Winner Check")
+@Category({"Santorini", "Game"})
+@Description("Evaluation of the win and stalemate conditions after a turn")
+public class WinnerCheckEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Game Over")
+    public boolean gameOver;
+}
@@ -2,16 +2,49 @@ package model.players;
 
 import model.Board;
 import model.Game;
+import model.Position;
+import model.Timer;
 import model.ai.AIStrategy;
-import model.ai.RandomStrategy;
-import model.ai.MinimaxStrategy;
+import model.ai.AlphaBetaStrategy;
+import model.ai.BitboardEvaluator;
+import model.ai.BoardState;
+import model.ai.BookStrategy;
+import model.ai.DeadlineStrategy;
+import model.ai.Evaluator;
+import model.ai.MctsStrategy;
+import model.ai.NoisyEvaluator;
+import model.ai.OpeningBook;
+import model.ai.PlacementTable;
+import model.ai.SearchContext;
+import model.ai.SolverStrategy;
+import model.ai.StrategyScheduler;
+import model.ai.TurnPlan;
+import model.ai.WeightedEvaluator;
+import model.enums.Difficulty;
+import model.enums.TurnState;
+import model.monitoring.AIDecisionEvent;
+import model.monitoring.SantoriniMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Computer-controlled player for single player mode.
  */
 public class ComputerPlayer extends Player
 {
-    private AIStrategy currentStrategy;
+    /**
+     * Per-turn latency budget in milliseconds from the {@code santorini.ai.deadline} system property,
+     * applied with {@link #setTurnDeadline}; 0, the default, leaves the strategy's own limits.
+     */
+    public static final long DEFAULT_TURN_DEADLINE = Long.getLong("santorini.ai.deadline", 0);
+
+    // Strategies live as long as the game so their tables and trees carry over between turns;
+    // both stay null until the first search unless a strategy or difficulty is set
+    private AIStrategy strategy;
+    private AIStrategy searchStrategy;
+    private Difficulty difficulty;
+    private long turnDeadlineMillis;
     private int moveCount;
     private Game game; // Reference to the game instance
 
@@ -23,8 +56,22 @@ public class ComputerPlayer extends Player
     public ComputerPlayer(String name, Game game) {
         super(name);
         this.moveCount = 0;
-        this.currentStrategy = new RandomStrategy();
         this.game = game;
+        this.turnDeadlineMillis = Math.max(0, DEFAULT_TURN_DEADLINE);
+    }
+
+    /**
+     * The strategy searches run with. Unless a strategy or difficulty was set, this is a
+     * {@link StrategyScheduler} budgeting from this player's clock, built on first use so that setting
+     * a difficulty first does not allocate one only to discard it.
+     */
+    private synchronized AIStrategy strategy() {
+        if (strategy == null) {
+            searchStrategy = new StrategyScheduler(OpeningBook.getDefault(), new AlphaBetaStrategy(),
+                    new MctsStrategy(), this::remainingClockMillis);
+            strategy = withDeadline(searchStrategy);
+        }
+        return strategy;
     }
 
     /**
@@ -41,18 +88,173 @@ public class ComputerPlayer extends Player
     }
 
     /**
-     * Make a move using the appropriate AI strategy based on the move count.
+     * Replace the {@link StrategyScheduler} with a single strategy, e.g. an {@link model.ai.MctsStrategy}.
+     * The strategy is kept for the rest of the game and handles every position missing from the opening book.
+     * @param strategy The strategy to search with
+     */
+    public synchronized void setSearchStrategy(AIStrategy strategy) {
+        this.difficulty = null;
+        this.searchStrategy = strategy;
+        this.strategy = withDeadline(new BookStrategy(OpeningBook.getDefault(), strategy));
+    }
+
+    public AIStrategy getSearchStrategy() {
+        strategy();
+        return searchStrategy;
+    }
+
+    /**
+     * @return The name the last search is recorded under, e.g. the engine the {@link StrategyScheduler} chose
+     */
+    public String decisionName() {
+        return strategy().decisionName();
+    }
+
+    /**
+     * Search with the node budget and evaluation noise of a difficulty level and no time limit, so the
+     * computer plays the same turns on any machine. The {@link StrategyScheduler} ignores the clock and
+     * never picks MCTS, and a quarter of the budget goes to the late-game solver when it runs.
+     * @param difficulty The level to play at
+     */
+    public synchronized void setDifficulty(Difficulty difficulty) {
+        Evaluator evaluator = new BitboardEvaluator(new WeightedEvaluator());
+        if (difficulty.getNoise() > 0) {
+            evaluator = new NoisyEvaluator(evaluator, difficulty.getNoise(), difficulty.ordinal());
+        }
+        AlphaBetaStrategy search = new AlphaBetaStrategy(0, AlphaBetaStrategy.MAX_PLY, evaluator);
+        search.setNodeLimit(difficulty.getNodeBudget());
+        StrategyScheduler scheduler = new StrategyScheduler(OpeningBook.getDefault(), search, null, null);
+        scheduler.setSolverLimits(SolverStrategy.DEFAULT_TURN_THRESHOLD, difficulty.getNodeBudget() / 4);
+        this.searchStrategy = scheduler;
+        this.strategy = withDeadline(scheduler);
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * @return The difficulty level, or null if the search is limited by time instead
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Answer every turn within a fixed time, whatever the position, using a {@link DeadlineStrategy} around
+     * the current strategy. The deadline overrides a difficulty level's node budget when it is shorter,
+     * so turns then depend on the machine's speed.
+     * @param millis The latency budget per turn, or 0 to search with the strategy's own limits
+     */
+    public synchronized void setTurnDeadline(long millis) {
+        this.turnDeadlineMillis = Math.max(0, millis);
+        if (strategy != null) {
+            AIStrategy base = strategy instanceof DeadlineStrategy deadline ? deadline.getStrategy() : strategy;
+            this.strategy = withDeadline(base);
+        }
+    }
+
+    public long getTurnDeadline() {
+        return turnDeadlineMillis;
+    }
+
+    private AIStrategy withDeadline(AIStrategy base) {
+        return turnDeadlineMillis > 0 ? new DeadlineStrategy(base, turnDeadlineMillis) : base;
+    }
+
+    /**
+     * Make a move using the appropriate AI strategy and play it on the current turn.
+     * Runs the search on the calling thread; the GUI uses {@link model.ai.AIExecutor} instead.
      * @param board The game board
      */
     public void makeMove(Board board) {
-        // Select strategy based on moveCount
-        if (moveCount < 3) {
-            currentStrategy = new RandomStrategy();
-        } else {
-            currentStrategy = new MinimaxStrategy(2);
+        TurnPlan plan = planMove(BoardState.capture(game), new SearchContext());
+        if (!plan.applyTo(game.getCurrentTurn(), this)) {
+            game.getCurrentTurn().setState(TurnState.COMPLETED);
+        }
+    }
+
+    /**
+     * Choose where to place both workers, from the precomputed {@link PlacementTable}.
+     * Boards the table does not cover get the free cells nearest the centre.
+     * @param state Snapshot of the placement phase with this player to place
+     * @return The two cells to place the workers on, in order
+     */
+    public List<Position> planPlacement(BoardState state) {
+        int[] cells = PlacementTable.getDefault().lookup(state);
+        List<Position> placements = new ArrayList<>();
+        if (cells != null) {
+            for (int cell : cells) {
+                placements.add(new Position(state.geometry().row(cell), state.geometry().col(cell)));
+            }
+            return placements;
+        }
+        double centre = (state.size() - 1) / 2.0;
+        for (int round = 0; round < 2; round++) {
+            Position best = null;
+            double bestDistance = Double.MAX_VALUE;
+            for (int cell = 0; cell < state.geometry().cells(); cell++) {
+                Position position = new Position(state.geometry().row(cell), state.geometry().col(cell));
+                double distance = Math.abs(position.getX() - centre) + Math.abs(position.getY() - centre);
+                if (!state.isOccupied(cell) && !placements.contains(position) && distance < bestDistance) {
+                    best = position;
+                    bestDistance = distance;
+                }
+            }
+            placements.add(best);
         }
-        // Use the new calculateMove signature
-        currentStrategy.calculateMove(this, game.getCurrentTurn(), board);
+        return placements;
+    }
+
+    /**
+     * Choose a turn on a snapshot, by default with the engine the {@link StrategyScheduler} picks for it.
+     * Does not touch the live game, so it is safe to call from a background thread.
+     * @param state Snapshot of the position with this player to move
+     * @param context Statistics, progress reporting and cancellation for the search
+     * @return The chosen turn
+     */
+    public TurnPlan planMove(BoardState state, SearchContext context) {
+        return plan(state, context, false);
+    }
+
+    /**
+     * Search a predicted position during the opponent's turn. Unlike {@link #planMove},
+     * the search is not counted as a decision unless the prediction comes true.
+     * @param state Predicted position with this player to move
+     * @param context Statistics and cancellation for the search
+     * @return The turn to play if the prediction is reached
+     */
+    public TurnPlan ponderMove(BoardState state, SearchContext context) {
+        return plan(state, context, true);
+    }
+
+    private TurnPlan plan(BoardState state, SearchContext context, boolean pondering) {
+        AIStrategy strategy = strategy();
+        AIDecisionEvent event = new AIDecisionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        context.setPondering(pondering);
+        TurnPlan plan = strategy.planTurn(state, context);
+        long elapsed = System.nanoTime() - start;
+        event.end();
+        // Record scheduled turns under the engine that played them, so each engine's latency is kept apart
+        String strategyName = strategy.decisionName();
+        if (!pondering) {
+            SantoriniMetrics.getInstance().recordDecision(strategyName, elapsed,
+                    context.getDepth(), context.getNodes());
+        }
+        if (event.shouldCommit()) {
+            event.player = getName();
+            event.strategy = strategyName;
+            event.depth = context.getDepth();
+            event.nodes = context.getNodes();
+            event.pondering = pondering;
+            event.commit();
+        }
+        return plan;
+    }
+
+    // Remaining time on this player's clock; read from the search thread while the clock runs
+    private long remainingClockMillis() {
+        Timer timer = game.getPlayer1() == this ? game.getPlayer1Timer() : game.getPlayer2Timer();
+        return Math.max(0, timer.getRemainingTime());
     }
 
     /**
@@ -61,4 +263,4 @@ public class ComputerPlayer extends Player
     public void incrementMoveCount() {
         moveCount++;
     }
-} 
\ No newline at end of file
+}
@@ -7,6 +7,8 @@ import model.cards.ArtemisCard;
 import model.cards.DemeterCard;
 import model.cards.TritonCard;
 import model.enums.TurnState;
+import model.monitoring.SantoriniMetrics;
+import model.monitoring.TurnEvent;
 import model.players.Player;
 
 import java.util.ArrayList;
@@ -23,12 +25,17 @@ public class Turn {
     private Cell firstMoveOrigin;
     private Cell firstBuildTarget;
 
+    private final TurnEvent event;
+    private boolean recorded;
+
     public Turn(Player player, Board board) {
         this.player = player;
         this.board = board;
         this.moves = new ArrayList<>();
         this.builds = new ArrayList<>();
         this.state = TurnState.WORKER_SELECTION;
+        this.event = new TurnEvent();
+        this.event.begin();
     }
 
     public Player getPlayer() {
@@ -102,7 +109,9 @@ public class Turn {
     }
 
     public boolean executeMove(Cell destination) {
-        if (!validateMove(destination)) return false;
+        boolean valid = validateMove(destination);
+        SantoriniMetrics.getInstance().recordMove(valid);
+        if (!valid) return false;
 
         MoveAction moveAction = new MoveAction(selectedWorker, destination);
 
@@ -184,7 +193,9 @@ public class Turn {
     }
 
     public boolean executeBuild(Cell destination) {
-        if (!validateBuild(destination)) return false;
+        boolean valid = validateBuild(destination);
+        SantoriniMetrics.getInstance().recordBuild(valid);
+        if (!valid) return false;
 
         BuildAction buildAction = new BuildAction(selectedWorker, destination);
         buildAction = applyGodCardBuildRules(buildAction);
@@ -257,6 +268,25 @@ public class Turn {
         this.state = TurnState.COMPLETED;
     }
 
+    /**
+     * Ends the Flight Recorder event for this turn. Only the first call has an effect.
+     */
+    public void recordEnd() {
+        if (recorded) {
+            return;
+        }
+        recorded = true;
+        SantoriniMetrics.getInstance().recordTurnExecuted();
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player.getName();
+            event.godCard = player.getGodCard() != null ? player.getGodCard().getName() : null;
+            event.moves = moves.size();
+            event.builds = builds.size();
+            event.commit();
+        }
+    }
+
     public Board getBoard() {
         return board;
     }
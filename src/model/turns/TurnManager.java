@@ -2,6 +2,7 @@ package model.turns;
 
 import model.*;
 import model.enums.TurnState;
+import model.monitoring.WinnerCheckEvent;
 import model.players.Player;
 
 public class TurnManager {
@@ -46,6 +47,19 @@ public class TurnManager {
     }
 
     public boolean checkWinner() {
+        WinnerCheckEvent event = new WinnerCheckEvent();
+        event.begin();
+        boolean gameOver = evaluateWinner();
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = currentTurn != null ? currentTurn.getPlayer().getName() : null;
+            event.gameOver = gameOver;
+            event.commit();
+        }
+        return gameOver;
+    }
+
+    private boolean evaluateWinner() {
         if (currentTurn == null) return false;
 
         Worker worker = currentTurn.getSelectedWorker();
@@ -75,8 +89,7 @@ public class TurnManager {
                             currentCell.getPosition().getY() + dy
                     );
 
-                    if (newPos.getX() < 0 || newPos.getX() >= 5 ||
-                            newPos.getY() < 0 || newPos.getY() >= 5) {
+                    if (!game.getBoard().isValidPosition(newPos)) {
                         continue;
                     }
 